@@ -1,22 +1,28 @@
 package core.framework.test.redis;
 
-import core.framework.api.redis.Redis;
+import core.framework.api.redis.AsyncRedis;
+import core.framework.api.redis.RedisBatch;
 import core.framework.api.redis.RedisHash;
+import core.framework.api.redis.RedisScript;
 import core.framework.api.redis.RedisSet;
 import core.framework.api.util.Exceptions;
 import core.framework.api.util.Maps;
 import core.framework.api.util.Sets;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 /**
  * @author neo
  */
-public final class MockRedis implements Redis {
+public final class MockRedis implements AsyncRedis {
     final Map<String, Value> store = Maps.newConcurrentHashMap();
+    private final Map<String, BiFunction<List<String>, Object[], ?>> scripts = Maps.newConcurrentHashMap();
 
     private final MockRedisHash redisHash = new MockRedisHash(this);
     private final MockRedisSet redisSet = new MockRedisSet(this);
@@ -67,8 +73,20 @@ public final class MockRedis implements Redis {
     }
 
     @Override
-    public void del(String key) {
-        store.remove(key);
+    public void del(String... keys) {
+        for (String key : keys) {
+            store.remove(key);
+        }
+    }
+
+    @Override
+    public long delByPattern(String pattern) {
+        KeyMatcher matcher = new KeyMatcher(pattern);
+        long deleted = 0;
+        for (String key : store.keySet()) {
+            if (matcher.matches(key) && store.remove(key) != null) deleted++;
+        }
+        return deleted;
     }
 
     @Override
@@ -101,6 +119,84 @@ public final class MockRedis implements Redis {
         }
     }
 
+    @Override
+    public RedisBatch batch() {
+        return new MockRedisBatch(this);
+    }
+
+    // lua is not interpreted, test provides java implementation of script, e.g. mockRedis.script(script, (keys, args) -> 1L)
+    public <T> void script(RedisScript<T> script, BiFunction<List<String>, Object[], T> implementation) {
+        scripts.put(script.sha1, implementation);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T eval(RedisScript<T> script, List<String> keys, Object... args) {
+        BiFunction<List<String>, Object[], ?> implementation = scripts.get(script.sha1);
+        if (implementation == null) throw Exceptions.error("script is not mocked, please use MockRedis.script() to provide implementation, script={}", script.script);
+        return (T) implementation.apply(keys, args);
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) {
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value) {
+        set(key, value);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value, Duration expiration) {
+        set(key, value, expiration);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsentAsync(String key, String value, Duration expiration) {
+        return CompletableFuture.completedFuture(setIfAbsent(key, value, expiration));
+    }
+
+    @Override
+    public CompletableFuture<Void> expireAsync(String key, Duration duration) {
+        expire(key, duration);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> delAsync(String... keys) {
+        del(keys);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> multiGetAsync(String... keys) {
+        return CompletableFuture.completedFuture(multiGet(keys));
+    }
+
+    @Override
+    public CompletableFuture<Void> multiSetAsync(Map<String, String> values) {
+        multiSet(values);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<String> hgetAsync(String key, String field) {
+        return CompletableFuture.completedFuture(redisHash.get(key, field));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAllAsync(String key) {
+        return CompletableFuture.completedFuture(redisHash.getAll(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> evalAsync(RedisScript<T> script, List<String> keys, Object... args) {
+        return CompletableFuture.completedFuture(eval(script, keys, args));
+    }
+
     enum ValueType {
         VALUE, HASH, SET
     }
@@ -0,0 +1,107 @@
+package core.framework.test.redis;
+
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.util.Lists;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * @author neo
+ */
+public final class MockRedisBatch implements RedisBatch {
+    private final MockRedis redis;
+    private List<Runnable> commands = Lists.newArrayList();
+
+    public MockRedisBatch(MockRedis redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return read(() -> redis.get(key));
+    }
+
+    @Override
+    public void set(String key, String value) {
+        commands.add(() -> redis.set(key, value));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        commands.add(() -> redis.set(key, value, expiration));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsent(String key, String value, Duration expiration) {
+        return read(() -> redis.setIfAbsent(key, value, expiration));
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        commands.add(() -> redis.expire(key, duration));
+    }
+
+    @Override
+    public void del(String key) {
+        commands.add(() -> redis.del(key));
+    }
+
+    @Override
+    public CompletableFuture<String> hget(String key, String field) {
+        return read(() -> redis.hash().get(key, field));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAll(String key) {
+        return read(() -> redis.hash().getAll(key));
+    }
+
+    @Override
+    public void hset(String key, String field, String value) {
+        commands.add(() -> redis.hash().set(key, field, value));
+    }
+
+    @Override
+    public void hdel(String key, String... fields) {
+        commands.add(() -> redis.hash().del(key, fields));
+    }
+
+    @Override
+    public void sadd(String key, String value) {
+        commands.add(() -> redis.set().add(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> smembers(String key) {
+        return read(() -> redis.set().members(key));
+    }
+
+    @Override
+    public void srem(String key, String... values) {
+        commands.add(() -> redis.set().remove(key, values));
+    }
+
+    @Override
+    public void execute() {
+        List<Runnable> executing = commands;
+        commands = Lists.newArrayList();
+        executing.forEach(Runnable::run);
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> command) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        commands.add(() -> {
+            try {
+                future.complete(command.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+}
@@ -1,12 +1,17 @@
 package core.framework.test.redis;
 
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.redis.RedisScript;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -59,4 +64,48 @@ public class MockRedisTest {
 
         assertEquals(3, count.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void delByPattern() {
+        redis.set("cache:key1", "value1");
+        redis.set("cache:key2", "value2");
+        redis.set("key3", "value3");
+
+        assertEquals(2, redis.delByPattern("cache:*"));
+        assertNull(redis.get("cache:key1"));
+        assertEquals("value3", redis.get("key3"));
+    }
+
+    @Test
+    public void batch() {
+        redis.set("key1", "value1");
+        redis.hash().set("hash1", "field1", "value1");
+
+        RedisBatch batch = redis.batch();
+        CompletableFuture<String> value = batch.get("key1");
+        batch.set("key2", "value2");
+        CompletableFuture<String> hashValue = batch.hget("hash1", "field1");
+        batch.del("key1");
+        assertFalse(value.isDone());
+
+        batch.execute();
+        assertEquals("value1", value.join());
+        assertEquals("value1", hashValue.join());
+        assertEquals("value2", redis.get("key2"));
+        assertNull(redis.get("key1"));
+    }
+
+    @Test
+    public void eval() {
+        RedisScript<Long> script = RedisScript.returnLong("return redis.call('incrby', KEYS[1], ARGV[1])");
+        redis.script(script, (keys, args) -> {
+            long value = Long.parseLong(redis.get(keys.get(0))) + (Integer) args[0];
+            redis.set(keys.get(0), String.valueOf(value));
+            return value;
+        });
+
+        redis.set("counter", "1");
+        assertEquals(3L, (long) redis.eval(script, Collections.singletonList("counter"), 2));
+        assertEquals("3", redis.get("counter"));
+    }
+}
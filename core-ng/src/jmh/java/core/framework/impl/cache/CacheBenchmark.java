@@ -0,0 +1,76 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * local cache hit, serialized value vs immutable value object
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheBenchmark {
+    private CacheImpl<Product> cache;
+    private CacheImpl<Product> immutableCache;
+
+    @Setup
+    public void setup() {
+        LocalCacheStore cacheStore = new LocalCacheStore();
+        cache = new CacheImpl<>("product", Product.class, Duration.ofHours(1), cacheStore);
+        immutableCache = new CacheImpl<>("immutable-product", Product.class, Duration.ofHours(1), cacheStore);
+        immutableCache.context.immutable = true;
+
+        Product product = product();
+        cache.put("1", product);
+        immutableCache.put("1", product);
+    }
+
+    private Product product() {
+        Product product = new Product();
+        product.id = "1";
+        product.name = "product name";
+        product.description = "product description, which is usually longer than name";
+        product.price = 100.5;
+        product.updatedTime = LocalDateTime.now();
+        product.tags = Lists.newArrayList("tag1", "tag2", "tag3");
+        return product;
+    }
+
+    @Benchmark
+    public Product get() {
+        return cache.get("1", key -> null);
+    }
+
+    @Benchmark
+    public Product getImmutable() {
+        return immutableCache.get("1", key -> null);
+    }
+
+    public static class Product {
+        public String id;
+        public String name;
+        public String description;
+        public Double price;
+        public LocalDateTime updatedTime;
+        public List<String> tags;
+    }
+}
@@ -0,0 +1,75 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Lists;
+import core.framework.api.util.Types;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * decode cache value, json vs smile, list of 20 products
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheCodecBenchmark {
+    private CacheContext<List<CacheBenchmark.Product>> jsonContext;
+    private CacheContext<List<CacheBenchmark.Product>> smileContext;
+    private byte[] json;
+    private byte[] smile;
+
+    @Setup
+    public void setup() {
+        Type valueType = Types.list(CacheBenchmark.Product.class);
+        jsonContext = new CacheContext<>(valueType);
+        jsonContext.compressionThreshold = Integer.MAX_VALUE;
+        smileContext = new CacheContext<>(valueType);
+        smileContext.codec = new SmileCacheCodec<>(valueType);
+        smileContext.compressionThreshold = Integer.MAX_VALUE;
+
+        List<CacheBenchmark.Product> products = Lists.newArrayList();
+        for (int i = 0; i < 20; i++) {
+            products.add(product(i));
+        }
+        json = jsonContext.encode(new CacheEntry<>(products, 0));
+        smile = smileContext.encode(new CacheEntry<>(products, 0));
+    }
+
+    private CacheBenchmark.Product product(int id) {
+        CacheBenchmark.Product product = new CacheBenchmark.Product();
+        product.id = String.valueOf(id);
+        product.name = "product name " + id;
+        product.description = "product description, which is usually longer than name";
+        product.price = 100.5 + id;
+        product.updatedTime = LocalDateTime.now();
+        product.tags = Lists.newArrayList("tag1", "tag2", "tag3");
+        return product;
+    }
+
+    @Benchmark
+    public CacheEntry<List<CacheBenchmark.Product>> decodeJSON() {
+        return jsonContext.decode(json);
+    }
+
+    @Benchmark
+    public CacheEntry<List<CacheBenchmark.Product>> decodeSmile() {
+        return smileContext.decode(smile);
+    }
+}
@@ -0,0 +1,126 @@
+package core.framework.impl.db;
+
+import core.framework.api.db.Column;
+import core.framework.api.db.DBEnumValue;
+import core.framework.api.db.PrimaryKey;
+import core.framework.api.db.Table;
+import core.framework.api.util.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * add 1000 entities of 8 columns to hsqldb batch without executing, generated typed binder vs Object[] params with instanceof chain
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParamBinderBenchmark {
+    private Connection connection;
+    private PreparedStatement statement;
+    private DatabaseOperation operation;
+    private InsertQuery<Entity> insertQuery;
+    private List<Entity> entities;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:hsqldb:mem:benchmark;sql.syntax_mys=true");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS benchmark_entity (id INT PRIMARY KEY, name VARCHAR(50), description VARCHAR(200), price DECIMAL(10,2), quantity INT, version BIGINT, status VARCHAR(10), updated_time TIMESTAMP)");
+        }
+        insertQuery = new InsertQuery<>(Entity.class);
+        statement = connection.prepareStatement(insertQuery.sql);
+        operation = new DatabaseOperation(null);
+        operation.enumMapper.registerEnumClass(Status.class);
+
+        entities = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            Entity entity = new Entity();
+            entity.id = i;
+            entity.name = "name-" + i;
+            entity.description = "description of product " + i;
+            entity.price = BigDecimal.valueOf(i, 2);
+            entity.quantity = i % 100;
+            entity.version = i * 10L;
+            entity.status = i % 2 == 0 ? Status.ACTIVE : Status.INACTIVE;
+            entity.updatedTime = LocalDateTime.now();
+            entities.add(entity);
+        }
+    }
+
+    @TearDown
+    public void cleanup() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public void bindByObjectArray() throws SQLException {
+        for (Entity entity : entities) {
+            operation.setParams(statement, insertQuery.params(entity));
+            statement.addBatch();
+        }
+        statement.clearBatch();
+    }
+
+    @Benchmark
+    public void bindByParamBinder() throws SQLException {
+        ParamBinder<Entity> binder = insertQuery.paramBinder;
+        for (Entity entity : entities) {
+            binder.bind(statement, entity, 0);
+            statement.addBatch();
+        }
+        statement.clearBatch();
+    }
+
+    public enum Status {
+        @DBEnumValue("A")
+        ACTIVE,
+        @DBEnumValue("I")
+        INACTIVE
+    }
+
+    @Table(name = "benchmark_entity")
+    public static class Entity {
+        @PrimaryKey
+        @Column(name = "id")
+        public Integer id;
+        @Column(name = "name")
+        public String name;
+        @Column(name = "description")
+        public String description;
+        @Column(name = "price")
+        public BigDecimal price;
+        @Column(name = "quantity")
+        public Integer quantity;
+        @Column(name = "version")
+        public Long version;
+        @Column(name = "status")
+        public Status status;
+        @Column(name = "updated_time")
+        public LocalDateTime updatedTime;
+    }
+}
@@ -0,0 +1,158 @@
+package core.framework.impl.db;
+
+import core.framework.api.db.Column;
+import core.framework.api.util.ASCII;
+import core.framework.api.util.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * map rows of 8 columns from in memory hsqldb result set, generated mapper reading by position vs previous lookup by column name for every column of every row
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowMapperBenchmark {
+    @Param({"1", "100", "10000"})
+    public int rows;
+
+    private Connection connection;
+    private ResultSet resultSet;
+    private RowMapper<Entity> mapper;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:hsqldb:mem:benchmark;sql.syntax_mys=true");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS benchmark (id INT PRIMARY KEY, name VARCHAR(50), description VARCHAR(200), price DOUBLE, quantity INT, version BIGINT, enabled BOOLEAN, updated_time TIMESTAMP)");
+            statement.execute("TRUNCATE TABLE benchmark");
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO benchmark VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                statement.setInt(1, i);
+                statement.setString(2, "name-" + i);
+                statement.setString(3, "description of product " + i);
+                statement.setDouble(4, i * 1.5);
+                statement.setInt(5, i % 100);
+                statement.setLong(6, i * 10L);
+                statement.setBoolean(7, i % 2 == 0);
+                statement.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        PreparedStatement statement = connection.prepareStatement("SELECT id, name, description, price, quantity, version, enabled, updated_time FROM benchmark", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        resultSet = statement.executeQuery();
+        mapper = new RowMapperBuilder<>(Entity.class, new EnumDBMapper()).build();
+    }
+
+    @TearDown
+    public void cleanup() throws SQLException {
+        resultSet.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public void mapByPosition(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        ResultSetWrapper wrapper = new ResultSetWrapper(resultSet);
+        while (resultSet.next()) {
+            blackhole.consume(mapper.map(wrapper));
+        }
+    }
+
+    @Benchmark
+    public void mapByColumnName(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        ColumnNameMapper mapper = new ColumnNameMapper(resultSet);
+        while (resultSet.next()) {
+            blackhole.consume(mapper.map());
+        }
+    }
+
+    public static class Entity {
+        @Column(name = "id")
+        public Integer id;
+        @Column(name = "name")
+        public String name;
+        @Column(name = "description")
+        public String description;
+        @Column(name = "price")
+        public Double price;
+        @Column(name = "quantity")
+        public Integer quantity;
+        @Column(name = "version")
+        public Long version;
+        @Column(name = "enabled")
+        public Boolean enabled;
+        @Column(name = "updated_time")
+        public LocalDateTime updatedTime;
+    }
+
+    // previous generated code, lower case column name and look up index for every column of every row
+    static final class ColumnNameMapper {
+        private final ResultSetWrapper wrapper;
+        private final Map<String, Integer> columnIndex = Maps.newHashMap();
+
+        ColumnNameMapper(ResultSet resultSet) throws SQLException {
+            wrapper = new ResultSetWrapper(resultSet);
+            ResultSetMetaData meta = resultSet.getMetaData();
+            for (int i = 1; i < meta.getColumnCount() + 1; i++) {
+                columnIndex.put(ASCII.toLowerCase(meta.getColumnLabel(i)), i);
+            }
+        }
+
+        Entity map() throws SQLException {
+            Entity entity = new Entity();
+            Integer index = index("id");
+            if (index != null) entity.id = wrapper.getInt(index);
+            index = index("name");
+            if (index != null) entity.name = wrapper.getString(index);
+            index = index("description");
+            if (index != null) entity.description = wrapper.getString(index);
+            index = index("price");
+            if (index != null) entity.price = wrapper.getDouble(index);
+            index = index("quantity");
+            if (index != null) entity.quantity = wrapper.getInt(index);
+            index = index("version");
+            if (index != null) entity.version = wrapper.getLong(index);
+            index = index("enabled");
+            if (index != null) entity.enabled = wrapper.getBoolean(index);
+            index = index("updated_time");
+            if (index != null) entity.updatedTime = wrapper.getLocalDateTime(index);
+            return entity;
+        }
+
+        private Integer index(String column) {
+            return columnIndex.get(ASCII.toLowerCase(column));
+        }
+    }
+}
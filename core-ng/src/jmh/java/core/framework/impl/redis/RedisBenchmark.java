@@ -0,0 +1,60 @@
+package core.framework.impl.redis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pooled jedis (max 50 connections) vs multiplexed client (4 connections) with 256 concurrent callers,
+ * requires redis server, run with -jvmArgsAppend -Dredis.host=host, default is localhost
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Threads(256)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RedisBenchmark {
+    private RedisImpl redis;
+    private MultiplexedRedisImpl multiplexedRedis;
+
+    @Setup
+    public void setup() {
+        String host = System.getProperty("redis.host", "localhost");
+        redis = new RedisImpl();
+        redis.host(host);
+        multiplexedRedis = new MultiplexedRedisImpl(4);
+        multiplexedRedis.host(host);
+        redis.set("benchmark", "value");
+    }
+
+    @TearDown
+    public void cleanup() {
+        redis.close();
+        multiplexedRedis.close();
+    }
+
+    @Benchmark
+    public String pooled() {
+        return redis.get("benchmark");
+    }
+
+    @Benchmark
+    public String multiplexed() {
+        return multiplexedRedis.get("benchmark");
+    }
+}
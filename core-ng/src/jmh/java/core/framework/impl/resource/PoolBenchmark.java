@@ -0,0 +1,78 @@
+package core.framework.impl.resource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * borrow, use and return with 1 to 64 threads, pool max size is 32, so 64 threads also measure waiting and handoff
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PoolBenchmark {
+    private Pool<Object> pool;
+
+    @Setup
+    public void setup() {
+        pool = new Pool<>(Object::new, resource -> {
+        });
+        pool.size(8, 32);
+        pool.refresh();
+    }
+
+    @TearDown
+    public void cleanup() {
+        pool.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads1() {
+        borrowAndReturn();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads4() {
+        borrowAndReturn();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void threads16() {
+        borrowAndReturn();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void threads64() {
+        borrowAndReturn();
+    }
+
+    private void borrowAndReturn() {
+        PoolItem<Object> item = pool.borrowItem();
+        try {
+            Blackhole.consumeCPU(100);  // simulate work with resource
+        } finally {
+            pool.returnItem(item);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package core.framework.api.cache;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 /**
@@ -10,8 +11,14 @@ import java.util.function.Function;
 public interface Cache<T> {
     T get(String key, Function<String, T> loader);
 
+    // loader returns Optional.empty() if value does not exist, absence is cached if cache().add().cacheAbsent(expiration) is configured, then loader is not called again until absence expires
+    Optional<T> getOptional(String key, Function<String, Optional<T>> loader);
+
     Map<String, T> getAll(List<String> keys, Function<String, T> loader);
 
+    // loader is called once with all missed keys, e.g. to query by "IN (...)", keys not returned by loader are not cached
+    Map<String, T> getAllInBatch(List<String> keys, Function<List<String>, Map<String, T>> loader);
+
     void put(String key, T value);
 
     void evict(String key);
@@ -2,6 +2,7 @@ package core.framework.api.db;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -11,6 +12,10 @@ public interface Database {
 
     <T> Optional<T> selectOne(String sql, Class<T> viewClass, Object... params);
 
+    // rows are streamed from db and not kept in memory, the connection is held until all rows are consumed,
+    // within transaction, consumer must not run other queries on same database, as mysql does not allow to use the connection until streaming result set is closed
+    <T> void forEach(String sql, Class<T> viewClass, Consumer<T> consumer, Object... params);
+
     int execute(String sql, Object... params);
 
     Transaction beginTransaction();
@@ -2,6 +2,7 @@ package core.framework.api.db;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -16,6 +17,10 @@ public interface Repository<T> {
         return select(query);
     }
 
+    // rows are streamed from db and not kept in memory, the connection is held until all rows are consumed,
+    // within transaction, consumer must not run other queries on same database, as mysql does not allow to use the connection until streaming result set is closed
+    void forEach(Query query, Consumer<T> consumer);
+
     Optional<T> selectOne(String where, Object... params);
 
     Optional<T> get(Object... primaryKeys);
@@ -28,5 +33,9 @@ public interface Repository<T> {
 
     void batchInsert(List<T> entities);
 
+    void batchUpdate(List<T> entities);     // updates all columns by primary key, null fields are set to null
+
+    void batchUpsert(List<T> entities);     // inserts or updates all columns by primary key
+
     void batchDelete(List<?> primaryKeys);
 }
@@ -5,19 +5,27 @@ import core.framework.api.http.HTTPMethod;
 import core.framework.api.util.ASCII;
 import core.framework.api.util.Exceptions;
 import core.framework.api.util.Types;
+import core.framework.impl.cache.CacheImpl;
 import core.framework.impl.cache.CacheManager;
+import core.framework.impl.cache.CacheMetrics;
 import core.framework.impl.cache.CacheStore;
+import core.framework.impl.cache.LocalCacheInvalidator;
+import core.framework.impl.cache.LocalCacheMetrics;
 import core.framework.impl.cache.LocalCacheStore;
 import core.framework.impl.cache.RedisCacheStore;
 import core.framework.impl.module.ModuleContext;
 import core.framework.impl.redis.RedisImpl;
+import core.framework.impl.redis.ShardedRedisImpl;
+import core.framework.impl.redis.ShardedRedisMetrics;
 import core.framework.impl.web.management.CacheController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author neo
@@ -57,11 +65,13 @@ public final class CacheConfig {
         LocalCacheStore cacheStore = new LocalCacheStore();
         if (!context.isTest()) {
             context.backgroundTask().scheduleWithFixedDelay(cacheStore::cleanup, Duration.ofMinutes(30));
+            context.metrics.add(new LocalCacheMetrics(cacheStore));
         }
+        state.localCacheStore = cacheStore;
         configureCacheManager(cacheStore);
     }
 
-    public void redis(String host) {
+    public void redis(String... hosts) {
         if (state.cacheManager != null)
             throw new Error("cache() is already configured, please configure cache store only once");
 
@@ -69,18 +79,61 @@ public final class CacheConfig {
             logger.info("use local cache during test");
             local();
         } else {
-            logger.info("create redis cache manager, host={}", host);
+            logger.info("create redis cache manager, hosts={}", String.join(",", hosts));
 
-            RedisImpl redis = new RedisImpl();
-            redis.host(host);
-            redis.pool.name("redis-cache");
+            ShardedRedisImpl redis = new ShardedRedisImpl("redis-cache");
+            redis.hosts(hosts);
+            context.pools.addAll(redis.pools());
             redis.timeout(Duration.ofSeconds(1));   // for cache, use shorter timeout than default redis config
             context.shutdownHook.add(redis::close);
-            context.backgroundTask().scheduleWithFixedDelay(redis.pool::refresh, Duration.ofMinutes(5));
-            configureCacheManager(new RedisCacheStore(redis));
+            context.backgroundTask().scheduleWithFixedDelay(redis::refresh, Duration.ofMinutes(5));
+            context.metrics.add(new ShardedRedisMetrics("redis-cache", redis));
+            state.redis = redis.shard(0);   // local cache invalidation is published to all subscribers of first host
+            state.redisCacheStore = new RedisCacheStore(redis);
+            state.localCacheStore = new LocalCacheStore();  // only used by cache with local() enabled
+            configureCacheManager(state.redisCacheStore);
         }
     }
 
+    public void maxLocalSize(int maxSize) {
+        if (state.localCacheStore == null) throw Exceptions.error("cache() is not configured");
+        state.localCacheStore.maxSize = maxSize;
+    }
+
+    public void maxLocalBytes(long maxBytes) {
+        if (state.localCacheStore == null) throw Exceptions.error("cache() is not configured");
+        state.localCacheStore.maxBytes = maxBytes;
+    }
+
+    // write cache value to redis in format v1 (codec, compression and expiration time header), previous version only reads plain json,
+    // so enable only after all nodes sharing same redis run this version, binary() and cacheAbsent() require it with redis cache store
+    public void formatV1() {
+        if (state.cacheManager == null) throw Exceptions.error("cache() is not configured");
+        logger.info("write cache value to redis in format v1");
+        state.formatV1 = true;
+        for (CacheImpl<?> cache : state.cacheManager.caches()) {
+            cache.context.sharedFormatV1 = true;
+        }
+    }
+
+    // save local cache to file on shutdown and load on startup, to warm up after restart, call after maxLocalSize/maxLocalBytes to apply limits on loading
+    public void localSnapshot(Path path) {
+        if (state.cacheManager == null) throw Exceptions.error("cache() is not configured");
+        if (context.isTest()) {
+            logger.info("skip local cache snapshot during test");
+            return;
+        }
+        if (state.redisCacheStore != null) {
+            logger.info("cache store is redis, skip local cache snapshot, path={}", path);
+            return;
+        }
+
+        logger.info("load local cache snapshot, path={}", path);
+        LocalCacheStore cacheStore = state.localCacheStore;
+        cacheStore.loadSnapshot(path);     // load during configuration, before http server starts
+        context.shutdownHook.add(() -> cacheStore.saveSnapshot(path));
+    }
+
     private void configureCacheManager(CacheStore cacheStore) {
         state.cacheManager = new CacheManager(cacheStore);
         if (!context.isTest()) {
@@ -88,24 +141,34 @@ public final class CacheConfig {
             context.route(HTTPMethod.GET, "/_sys/cache", controller::list, true);
             context.route(HTTPMethod.GET, "/_sys/cache/:name/:key", controller::get, true);
             context.route(HTTPMethod.DELETE, "/_sys/cache/:name/:key", controller::delete, true);
+            context.route(HTTPMethod.DELETE, "/_sys/cache/:name", controller::flush, true);
+            context.metrics.add(new CacheMetrics(state.cacheManager));
         }
     }
 
-    public void add(String name, Type valueType, Duration duration) {
+    public CacheStoreConfig add(String name, Type valueType, Duration duration) {
         if (state.cacheManager == null) throw Exceptions.error("cache() is not configured");
 
         String cacheName = cacheName(name, valueType);
         logger.info("add cache, cacheName={}, valueType={}, beanName={}", cacheName, valueType.getTypeName(), name);
-        Cache<?> cache = state.cacheManager.add(cacheName, valueType, duration);
+        CacheImpl<?> cache = state.cacheManager.add(cacheName, valueType, duration);
+        cache.context.sharedFormatV1 = state.formatV1;
         context.beanFactory.bind(Types.generic(Cache.class, valueType), name, cache);
+        return new CacheStoreConfig(context, state, cache);
     }
 
-    public void add(Type valueType, Duration duration) {
-        add(null, valueType, duration);
+    public CacheStoreConfig add(Type valueType, Duration duration) {
+        return add(null, valueType, duration);
     }
 
     public static class State {
         CacheManager cacheManager;
+        LocalCacheStore localCacheStore;
+        RedisImpl redis;
+        RedisCacheStore redisCacheStore;
+        LocalCacheInvalidator localCacheInvalidator;
+        ExecutorService refreshExecutor;
+        boolean formatV1;
 
         public void validate() {
             if (cacheManager.caches().isEmpty()) {
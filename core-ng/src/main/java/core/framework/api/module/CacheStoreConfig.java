@@ -0,0 +1,119 @@
+package core.framework.api.module;
+
+import core.framework.api.util.Exceptions;
+import core.framework.impl.async.ThreadPools;
+import core.framework.impl.cache.CacheImpl;
+import core.framework.impl.cache.LocalCacheInvalidator;
+import core.framework.impl.cache.LocalCacheMetrics;
+import core.framework.impl.cache.RedisLocalCacheStore;
+import core.framework.impl.cache.SmileCacheCodec;
+import core.framework.impl.module.ModuleContext;
+import core.framework.impl.redis.RedisSubscribeThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * @author neo
+ */
+public final class CacheStoreConfig {
+    private final Logger logger = LoggerFactory.getLogger(CacheStoreConfig.class);
+    private final ModuleContext context;
+    private final CacheConfig.State state;
+    private final CacheImpl<?> cache;
+
+    CacheStoreConfig(ModuleContext context, CacheConfig.State state, CacheImpl<?> cache) {
+        this.context = context;
+        this.state = state;
+        this.cache = cache;
+    }
+
+    // keep hot values in local memory in front of redis, local value may be stale within expiration if invalidation message is lost
+    public void local(Duration expiration) {
+        if (expiration.compareTo(cache.duration) >= 0)
+            throw Exceptions.error("local expiration must be shorter than cache duration, name={}, expiration={}, duration={}", cache.name, expiration, cache.duration);
+
+        if (state.redisCacheStore == null) {
+            logger.info("cache store is local, skip local cache, name={}", cache.name);
+            return;
+        }
+
+        logger.info("enable local cache, name={}, expiration={}", cache.name, expiration);
+        cache.cacheStore = new RedisLocalCacheStore(state.localCacheStore, state.redisCacheStore, localCacheInvalidator(), expiration);
+    }
+
+    // value must not be modified after put into or got from cache, then local cache store keeps value object instead of serialized bytes, to skip deserialization on local hit
+    public void immutable() {
+        logger.info("treat cache value as immutable, name={}", cache.name);
+        cache.context.immutable = true;
+    }
+
+    // cache null returned by loader, to not call loader again for not existed key within expiration, e.g. invalid id from crawler
+    public void cacheAbsent(Duration expiration) {
+        if (expiration.compareTo(cache.duration) > 0)
+            throw Exceptions.error("absent expiration must not be longer than cache duration, name={}, expiration={}, duration={}", cache.name, expiration, cache.duration);
+
+        if (state.redisCacheStore != null && !state.formatV1)
+            throw Exceptions.error("cacheAbsent() requires cache().formatV1() with redis cache store, name={}", cache.name);
+
+        logger.info("cache absent value, name={}, expiration={}", cache.name, expiration);
+        cache.absentExpiration = expiration;
+    }
+
+    // store value in smile (binary json) instead of json, smaller and faster to parse, value written in json before is still readable
+    public void binary() {
+        if (state.redisCacheStore != null && !state.formatV1)
+            throw Exceptions.error("binary() requires cache().formatV1() with redis cache store, name={}", cache.name);
+
+        logger.info("store cache value in smile format, name={}", cache.name);
+        cache.context.codec = new SmileCacheCodec<>(cache.valueType);
+    }
+
+    // for expensive loader, only one node loads the same key at a time, others wait until value is loaded or lock expires
+    public void lock(Duration expiration) {
+        if (expiration.getSeconds() < 1)
+            throw Exceptions.error("lock expiration must not be less than 1s, name={}, expiration={}", cache.name, expiration);
+
+        if (state.redisCacheStore == null) {
+            logger.info("cache store is local, skip distributed lock, name={}", cache.name);
+            return;
+        }
+
+        logger.info("enable distributed lock on load, name={}, expiration={}", cache.name, expiration);
+        cache.lockExpiration = expiration;
+    }
+
+    // soft expiration, value older than refreshAfter is returned as is and reloaded in background, for data tolerates staleness within cache duration
+    public void refreshAfter(Duration refreshAfter) {
+        if (refreshAfter.compareTo(cache.duration) >= 0)
+            throw Exceptions.error("refreshAfter must be shorter than cache duration, name={}, refreshAfter={}, duration={}", cache.name, refreshAfter, cache.duration);
+
+        logger.info("enable refresh in background, name={}, refreshAfter={}", cache.name, refreshAfter);
+        cache.refreshAfter = refreshAfter;
+        cache.refreshExecutor = refreshExecutor();
+    }
+
+    private ExecutorService refreshExecutor() {
+        if (state.refreshExecutor == null) {
+            ExecutorService executor = ThreadPools.cachedThreadPool(Runtime.getRuntime().availableProcessors(), "cache-refresh-");
+            context.shutdownHook.add(executor::shutdown);
+            state.refreshExecutor = executor;
+        }
+        return state.refreshExecutor;
+    }
+
+    private LocalCacheInvalidator localCacheInvalidator() {
+        if (state.localCacheInvalidator == null) {
+            LocalCacheInvalidator invalidator = new LocalCacheInvalidator(state.redis, state.localCacheStore);
+            RedisSubscribeThread thread = new RedisSubscribeThread("cache-invalidator", state.redis, LocalCacheInvalidator.CHANNEL, invalidator);
+            context.startupHook.add(thread::start);
+            context.shutdownHook.add(thread::shutdown);
+            context.backgroundTask().scheduleWithFixedDelay(state.localCacheStore::cleanup, Duration.ofMinutes(5));
+            context.metrics.add(new LocalCacheMetrics(state.localCacheStore));
+            state.localCacheInvalidator = invalidator;
+        }
+        return state.localCacheInvalidator;
+    }
+}
@@ -9,6 +9,7 @@ import core.framework.api.util.Lists;
 import core.framework.api.util.Strings;
 import core.framework.api.util.Types;
 import core.framework.impl.db.DatabaseImpl;
+import core.framework.impl.db.StatementCacheMetrics;
 import core.framework.impl.module.ModuleContext;
 
 import java.time.Duration;
@@ -37,7 +38,9 @@ public final class DBConfig {
         database.pool.name("db" + (name == null ? "" : "-" + name));
         context.shutdownHook.add(database::close);
         if (!context.isTest()) {
-            context.backgroundTask().scheduleWithFixedDelay(database.pool::refresh, Duration.ofMinutes(30));
+            context.backgroundTask().scheduleWithFixedDelay(database.pool::refresh, Duration.ofMinutes(5));
+            context.pools.add(database.pool);
+            context.metrics.add(new StatementCacheMetrics(database.pool.name(), database.operation.statementCacheStats));
         }
         context.beanFactory.bind(Database.class, name, database);
         return database;
@@ -74,6 +77,29 @@ public final class DBConfig {
         state.database.pool.size(minSize, maxSize);
     }
 
+    // pool size is adjusted between min and max size every 30 seconds, grows when average checkout wait time exceeds target
+    public void adaptivePoolSize(Duration targetWaitTime) {
+        state.database.pool.adaptive(targetWaitTime);
+        if (!context.isTest()) {
+            context.backgroundTask().scheduleWithFixedDelay(state.database.pool::adjustSize, Duration.ofSeconds(30));
+        }
+    }
+
+    // max prepared statements cached per connection, 0 to disable
+    public void statementCacheSize(int size) {
+        state.database.statementCacheSize(size);
+    }
+
+    // batch insert/update/upsert are split into chunks by max rows and estimated bytes of params, each chunk is one round trip
+    public void batchSize(int maxRows, int maxBytes) {
+        state.database.batchSize(maxRows, maxBytes);
+    }
+
+    // send each chunk of batch insert/upsert as one multi-row INSERT ... VALUES (...), (...) statement instead of jdbc batch, not applied to oracle
+    public void rewriteBatch(boolean rewriteBatch) {
+        state.database.rewriteBatch(rewriteBatch);
+    }
+
     public void defaultIsolationLevel(IsolationLevel level) {
         state.database.operation.transactionManager.defaultIsolationLevel = level;
     }
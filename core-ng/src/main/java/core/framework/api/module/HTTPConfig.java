@@ -38,7 +38,7 @@ public final class HTTPConfig {
             state.limitRateInterceptor = new LimitRateInterceptor();
             intercept(state.limitRateInterceptor);
         }
-        return new LimitRateConfig(state);
+        return new LimitRateConfig(context, state);
     }
 
     public static class State {
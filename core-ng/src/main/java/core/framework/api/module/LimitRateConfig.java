@@ -1,14 +1,22 @@
 package core.framework.api.module;
 
+import core.framework.api.redis.Redis;
+import core.framework.impl.module.ModuleContext;
+import core.framework.impl.web.rate.RedisRateLimiter;
+import core.framework.impl.web.rate.RedisRateLimiterMetrics;
+
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
  * @author neo
  */
 public final class LimitRateConfig {
+    private final ModuleContext context;
     private final HTTPConfig.State state;
 
-    LimitRateConfig(HTTPConfig.State state) {
+    LimitRateConfig(ModuleContext context, HTTPConfig.State state) {
+        this.context = context;
         this.state = state;
     }
 
@@ -16,4 +24,18 @@ public final class LimitRateConfig {
         state.limitRateInterceptor.config(group, maxPermits, fillRate, unit);
         state.limitRateGroupAdded = true;
     }
-}
\ No newline at end of file
+
+    public void redis() {
+        redis(Duration.ofMillis(50));
+    }
+
+    // limit rate over all nodes by redis, redis().host() must be configured first, if redis does not return within threshold or fails, requests are allowed and only local limit applies for a while
+    public void redis(Duration slowThreshold) {
+        if (!context.isTest()) {
+            Redis redis = context.beanFactory.bean(Redis.class, null);
+            RedisRateLimiter rateLimiter = state.limitRateInterceptor.redis(redis, slowThreshold);
+            context.metrics.add(new RedisRateLimiterMetrics(rateLimiter));
+            context.shutdownHook.add(rateLimiter::close);
+        }
+    }
+}
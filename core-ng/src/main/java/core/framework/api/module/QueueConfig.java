@@ -30,6 +30,7 @@ public final class QueueConfig {
                 RabbitMQImpl rabbitMQ = new RabbitMQImpl();
                 context.backgroundTask().scheduleWithFixedDelay(rabbitMQ.pool::refresh, Duration.ofMinutes(5));
                 context.shutdownHook.add(rabbitMQ::close);
+                context.pools.add(rabbitMQ.pool);
                 this.rabbitMQ = rabbitMQ;
             }
             context.beanFactory.bind(RabbitMQ.class, null, rabbitMQ);
@@ -1,8 +1,12 @@
 package core.framework.api.module;
 
+import core.framework.api.redis.AsyncRedis;
 import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisScript;
 import core.framework.impl.module.ModuleContext;
-import core.framework.impl.redis.RedisImpl;
+import core.framework.impl.redis.MultiplexedRedisImpl;
+import core.framework.impl.redis.ShardedRedisImpl;
+import core.framework.impl.redis.ShardedRedisMetrics;
 
 import java.time.Duration;
 
@@ -27,45 +31,98 @@ public final class RedisConfig {
         if (context.isTest()) {
             redis = context.mockFactory.create(Redis.class);
         } else {
-            redis = new RedisImpl();
-            context.shutdownHook.add(((RedisImpl) redis)::close);
-            context.backgroundTask().scheduleWithFixedDelay(((RedisImpl) redis).pool::refresh, Duration.ofMinutes(5));
+            ShardedRedisImpl shardedRedis = new ShardedRedisImpl("redis");
+            context.shutdownHook.add(shardedRedis::close);
+            context.backgroundTask().scheduleWithFixedDelay(shardedRedis::refresh, Duration.ofMinutes(5));
+            context.metrics.add(new ShardedRedisMetrics("redis", shardedRedis));
+            redis = shardedRedis;
         }
         context.beanFactory.bind(Redis.class, null, redis);
         return redis;
     }
 
     public void host(String host) {
+        hosts(host);
+    }
+
+    // keys are spread over hosts by consistent hashing, adding or removing host only remaps part of keys
+    public void hosts(String... hosts) {
+        if (state.asyncRedis != null && hosts.length > 1) throw new Error("multiplexed redis does not support multiple hosts");
         if (!context.isTest()) {
-            ((RedisImpl) state.redis).host(host);
+            ShardedRedisImpl redis = (ShardedRedisImpl) state.redis;
+            redis.hosts(hosts);
+            context.pools.addAll(redis.pools());
+            if (state.asyncRedis != null) ((MultiplexedRedisImpl) state.asyncRedis).host(hosts[0]);
+        }
+        state.hosts = hosts;
+    }
+
+    // bind AsyncRedis, which pipelines commands from all threads over given number of connections, pooled Redis is still available
+    public void multiplexed(int connections) {
+        if (state.asyncRedis != null) throw new Error("redis().multiplexed() is already configured");
+        if (connections <= 0) throw new Error("multiplexed connections must be greater than 0, connections=" + connections);
+        if (state.hosts != null && state.hosts.length > 1) throw new Error("multiplexed redis does not support multiple hosts");
+        AsyncRedis redis;
+        if (context.isTest()) {
+            redis = (AsyncRedis) state.redis;   // mock redis supports async calls, share same store with Redis
+        } else {
+            MultiplexedRedisImpl multiplexedRedis = new MultiplexedRedisImpl(connections);
+            if (state.hosts != null) multiplexedRedis.host(state.hosts[0]);
+            context.shutdownHook.add(multiplexedRedis::close);
+            redis = multiplexedRedis;
+        }
+        context.beanFactory.bind(AsyncRedis.class, null, redis);
+        state.asyncRedis = redis;
+    }
+
+    // load scripts to all hosts on startup, EVALSHA still falls back to EVAL if redis loses script cache, e.g. restarted
+    public void script(RedisScript<?>... scripts) {
+        if (!context.isTest()) {
+            ShardedRedisImpl redis = (ShardedRedisImpl) state.redis;
+            context.startupHook.add(() -> {
+                for (RedisScript<?> script : scripts) {
+                    redis.load(script);
+                }
+            });
         }
-        state.host = host;
     }
 
     public void poolSize(int minSize, int maxSize) {
         if (!context.isTest()) {
-            ((RedisImpl) state.redis).pool.size(minSize, maxSize);
+            ((ShardedRedisImpl) state.redis).poolSize(minSize, maxSize);
+        }
+    }
+
+    // pool size of each host is adjusted between min and max size every 30 seconds, grows when average checkout wait time exceeds target
+    public void adaptivePoolSize(Duration targetWaitTime) {
+        if (!context.isTest()) {
+            ShardedRedisImpl redis = (ShardedRedisImpl) state.redis;
+            redis.adaptivePoolSize(targetWaitTime);
+            context.backgroundTask().scheduleWithFixedDelay(redis::adjustPoolSize, Duration.ofSeconds(30));
         }
     }
 
     public void slowOperationThreshold(Duration threshold) {
         if (!context.isTest()) {
-            ((RedisImpl) state.redis).slowOperationThreshold(threshold);
+            ((ShardedRedisImpl) state.redis).slowOperationThreshold(threshold);
+            if (state.asyncRedis != null) ((MultiplexedRedisImpl) state.asyncRedis).slowOperationThreshold(threshold);
         }
     }
 
     public void timeout(Duration timeout) {
         if (!context.isTest()) {
-            ((RedisImpl) state.redis).timeout(timeout);
+            ((ShardedRedisImpl) state.redis).timeout(timeout);
+            if (state.asyncRedis != null) ((MultiplexedRedisImpl) state.asyncRedis).timeout(timeout);
         }
     }
 
     public static class State {
-        String host;
+        String[] hosts;
         Redis redis;
+        AsyncRedis asyncRedis;
 
         public void validate() {
-            if (host == null) throw new Error("redis().host() must be configured");
+            if (hosts == null) throw new Error("redis().host() must be configured");
         }
     }
 }
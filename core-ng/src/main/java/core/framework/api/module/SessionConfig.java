@@ -1,7 +1,7 @@
 package core.framework.api.module;
 
 import core.framework.impl.module.ModuleContext;
-import core.framework.impl.redis.RedisImpl;
+import core.framework.impl.redis.ShardedRedisImpl;
 import core.framework.impl.web.session.LocalSessionStore;
 import core.framework.impl.web.session.RedisSessionStore;
 import org.slf4j.Logger;
@@ -37,16 +37,16 @@ public final class SessionConfig {
         context.httpServer.siteManager.sessionManager.sessionStore(sessionStore);
     }
 
-    public void redis(String host) {
+    public void redis(String... hosts) {
         if (context.isTest()) {
             local();
         } else {
-            logger.info("create redis session provider, host={}", host);
+            logger.info("create redis session provider, hosts={}", String.join(",", hosts));
 
-            RedisImpl redis = new RedisImpl();
-            redis.host(host);
-            redis.pool.name("redis-session");
-            context.backgroundTask().scheduleWithFixedDelay(redis.pool::refresh, Duration.ofMinutes(5));
+            ShardedRedisImpl redis = new ShardedRedisImpl("redis-session");
+            redis.hosts(hosts);
+            context.pools.addAll(redis.pools());
+            context.backgroundTask().scheduleWithFixedDelay(redis::refresh, Duration.ofMinutes(5));
 
             context.shutdownHook.add(redis::close);
             context.httpServer.siteManager.sessionManager.sessionStore(new RedisSessionStore(redis));
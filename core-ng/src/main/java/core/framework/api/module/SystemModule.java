@@ -26,7 +26,7 @@ public final class SystemModule extends Module {
             if ("local".equals(host)) {
                 cache().local();
             } else {
-                cache().redis(host);
+                cache().redis(Strings.split(host, ','));
             }
         });
 
@@ -34,7 +34,7 @@ public final class SystemModule extends Module {
             if ("local".equals(host)) {
                 site().session().local();
             } else {
-                site().session().redis(host);
+                site().session().redis(Strings.split(host, ','));
             }
         });
 
@@ -66,7 +66,7 @@ public final class SystemModule extends Module {
         property("sys.jdbc.user").ifPresent(user -> db().user(user));
         property("sys.jdbc.password").ifPresent(password -> db().password(password));
 
-        property("sys.redis.host").ifPresent(host -> redis().host(host));
+        property("sys.redis.host").ifPresent(hosts -> redis().hosts(Strings.split(hosts, ',')));
 
         property("sys.elasticsearch.host").ifPresent(host -> search().host(host));
 
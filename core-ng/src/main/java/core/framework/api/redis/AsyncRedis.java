@@ -0,0 +1,36 @@
+package core.framework.api.redis;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * redis client over few multiplexed connections, commands from all threads are pipelined, supports both sync and async calls,
+ * async commands are sent over connections in round robin, so they are not ordered unless next command is sent after previous one completes
+ *
+ * @author neo
+ */
+public interface AsyncRedis extends Redis {
+    CompletableFuture<String> getAsync(String key);
+
+    CompletableFuture<Void> setAsync(String key, String value);
+
+    CompletableFuture<Void> setAsync(String key, String value, Duration expiration);
+
+    CompletableFuture<Boolean> setIfAbsentAsync(String key, String value, Duration expiration);
+
+    CompletableFuture<Void> expireAsync(String key, Duration duration);
+
+    CompletableFuture<Void> delAsync(String... keys);
+
+    CompletableFuture<Map<String, String>> multiGetAsync(String... keys);
+
+    CompletableFuture<Void> multiSetAsync(Map<String, String> values);
+
+    CompletableFuture<String> hgetAsync(String key, String field);
+
+    CompletableFuture<Map<String, String>> hgetAllAsync(String key);
+
+    <T> CompletableFuture<T> evalAsync(RedisScript<T> script, List<String> keys, Object... args);
+}
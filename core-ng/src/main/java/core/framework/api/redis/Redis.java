@@ -1,6 +1,7 @@
 package core.framework.api.redis;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -20,7 +21,9 @@ public interface Redis {
 
     void expire(String key, Duration duration);
 
-    void del(String key);
+    void del(String... keys);
+
+    long delByPattern(String pattern);     // scan and delete matched keys, return number of deleted keys
 
     Map<String, String> multiGet(String... keys);
 
@@ -29,4 +32,9 @@ public interface Redis {
     RedisHash hash();
 
     void forEach(String pattern, Consumer<String> consumer);
+
+    RedisBatch batch();
+
+    // args can be String, Number, Boolean, Enum or Duration (in seconds)
+    <T> T eval(RedisScript<T> script, List<String> keys, Object... args);
 }
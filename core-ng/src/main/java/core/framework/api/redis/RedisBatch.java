@@ -0,0 +1,42 @@
+package core.framework.api.redis;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * queues commands and sends them in one round trip on execute(), returned futures are completed after execute(),
+ * failed write command is thrown by execute(), failed read command fails its own future
+ *
+ * @author neo
+ */
+public interface RedisBatch {
+    CompletableFuture<String> get(String key);
+
+    void set(String key, String value);
+
+    void set(String key, String value, Duration expiration);
+
+    CompletableFuture<Boolean> setIfAbsent(String key, String value, Duration expiration);
+
+    void expire(String key, Duration duration);
+
+    void del(String key);
+
+    CompletableFuture<String> hget(String key, String field);
+
+    CompletableFuture<Map<String, String>> hgetAll(String key);
+
+    void hset(String key, String field, String value);
+
+    void hdel(String key, String... fields);
+
+    void sadd(String key, String value);
+
+    CompletableFuture<Set<String>> smembers(String key);
+
+    void srem(String key, String... values);
+
+    void execute();
+}
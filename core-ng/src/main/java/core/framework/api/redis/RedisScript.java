@@ -0,0 +1,40 @@
+package core.framework.api.redis;
+
+import core.framework.api.crypto.Hash;
+
+import java.util.List;
+
+/**
+ * lua script executed by EVALSHA, script is loaded on first NOSCRIPT error,
+ * result type is decided by factory method, e.g. RedisScript.returnLong("return redis.call('incr', KEYS[1])"),
+ * lua true is returned as 1 and false as nil by redis, so returnBoolean() treats 1 as true
+ *
+ * @author neo
+ */
+public final class RedisScript<T> {
+    public static RedisScript<String> returnString(String script) {
+        return new RedisScript<>(script, String.class);
+    }
+
+    public static RedisScript<Long> returnLong(String script) {
+        return new RedisScript<>(script, Long.class);
+    }
+
+    public static RedisScript<Boolean> returnBoolean(String script) {
+        return new RedisScript<>(script, Boolean.class);
+    }
+
+    public static RedisScript<List<String>> returnList(String script) {
+        return new RedisScript<>(script, List.class);
+    }
+
+    public final String script;
+    public final String sha1;
+    public final Class<?> resultClass;
+
+    private RedisScript(String script, Class<?> resultClass) {
+        this.script = script;
+        this.resultClass = resultClass;
+        sha1 = Hash.sha1Hex(script);
+    }
+}
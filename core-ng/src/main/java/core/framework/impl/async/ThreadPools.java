@@ -4,6 +4,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -19,6 +20,11 @@ public final class ThreadPools {
         return threadPool;
     }
 
+    // grow up to maxSize threads without queueing, and run task on caller thread once all threads are busy
+    public static ThreadPoolExecutor boundedThreadPool(int maxSize, String prefix) {
+        return new ThreadPoolExecutor(0, maxSize, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactoryImpl(prefix), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     public static ExecutorService fixedThreadPool(int poolSize, String prefix) {
         return Executors.newFixedThreadPool(poolSize, new ThreadFactoryImpl(prefix));
     }
@@ -0,0 +1,12 @@
+package core.framework.impl.cache;
+
+/**
+ * @author neo
+ */
+public interface CacheCodec<T> {
+    byte id();  // stored with value, to decode value written with other codec, must be within 0~63
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes, int offset, int length);
+}
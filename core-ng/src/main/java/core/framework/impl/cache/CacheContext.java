@@ -0,0 +1,176 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Exceptions;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * stored format is [FORMAT_V1][codec id, highest 2 bits mark compressed and absent][expiration time][value], compressed value is [original length][deflated bytes], absent entry has no value,
+ * plain json written by previous versions is still readable, value shared via redis is written as plain json until cache().formatV1() is enabled
+ *
+ * @author neo
+ */
+public final class CacheContext<T> {
+    static final byte FORMAT_V1 = 1;   // not a valid first byte of json, to tell from plain json written by previous version
+    private static final int HEADER_SIZE = 10;
+    private static final int COMPRESSED = 0x80;
+    private static final int ABSENT = 0x40;
+    private static final int SIZE_SAMPLE_INTERVAL = 64;     // must be power of 2
+
+    public final CacheStats stats = new CacheStats();
+    final CacheCodec<T> jsonCodec;
+    public CacheCodec<T> codec;
+    public int compressionThreshold = 4096;     // compress value if encoded size is larger than threshold
+    public boolean immutable;   // local cache store keeps entry object as is for immutable value, otherwise keeps serialized bytes and creates new object on every get
+    public boolean sharedFormatV1;  // previous version only reads plain json from redis, so format v1 is written to redis only after all nodes are upgraded
+    private final AtomicInteger sizeEstimates = new AtomicInteger();
+    private volatile int averageSize = -1;
+
+    CacheContext(Type valueType) {
+        jsonCodec = new JSONCacheCodec<>(valueType);
+        codec = jsonCodec;
+    }
+
+    byte[] encode(CacheEntry<T> entry) {
+        byte[] bytes = serialize(entry);
+        if (entry.value != null) stats.encode(bytes.length);
+        return bytes;
+    }
+
+    // for value shared with other nodes via redis, plain json has no expiration time, so entry read back disables early refresh and refreshAfter
+    byte[] encodeShared(CacheEntry<T> entry) {
+        if (sharedFormatV1 || entry.value == null || codec.id() != JSONCacheCodec.ID) return encode(entry);     // absent entry and binary codec are only allowed with format v1 by config
+        byte[] bytes = jsonCodec.encode(entry.value);
+        stats.encode(bytes.length);
+        return bytes;
+    }
+
+    // for immutable value kept as object in local cache, only serializes one of every SIZE_SAMPLE_INTERVAL values, and returns moving average of sampled sizes for others
+    int estimateSize(CacheEntry<T> entry) {
+        if (entry.value == null) return HEADER_SIZE;
+        int average = averageSize;
+        if (average >= 0 && (sizeEstimates.incrementAndGet() & (SIZE_SAMPLE_INTERVAL - 1)) != 0) return average;
+        int size = serialize(entry).length;
+        averageSize = average < 0 ? size : (average * 7 + size) / 8;
+        return size;
+    }
+
+    // not tracked in stats, e.g. to estimate size or write snapshot
+    byte[] serialize(CacheEntry<T> entry) {
+        if (entry.value == null) {
+            byte[] bytes = new byte[HEADER_SIZE];
+            bytes[0] = FORMAT_V1;
+            bytes[1] = (byte) ABSENT;
+            writeLong(bytes, 2, entry.expirationTime);
+            return bytes;
+        }
+        byte[] value = codec.encode(entry.value);
+        int flags = codec.id();
+        int length = value.length;
+        if (length > compressionThreshold) {
+            byte[] compressed = compress(value);
+            if (compressed.length < length) {
+                flags |= COMPRESSED;
+                value = compressed;
+                length = compressed.length;
+            }
+        }
+        byte[] bytes = new byte[HEADER_SIZE + length];
+        bytes[0] = FORMAT_V1;
+        bytes[1] = (byte) flags;
+        writeLong(bytes, 2, entry.expirationTime);
+        System.arraycopy(value, 0, bytes, HEADER_SIZE, length);
+        return bytes;
+    }
+
+    CacheEntry<T> decode(byte[] bytes) {
+        if (bytes.length == 0) return new CacheEntry<>(jsonCodec.decode(bytes, 0, 0), 0);
+        if (bytes[0] == FORMAT_V1) {
+            int flags = bytes[1] & 0xFF;
+            long expirationTime = readLong(bytes, 2);
+            if ((flags & ABSENT) != 0) return new CacheEntry<>(null, expirationTime);
+            CacheCodec<T> codec = codec((byte) (flags & ~COMPRESSED));
+            if ((flags & COMPRESSED) == 0) return new CacheEntry<>(codec.decode(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE), expirationTime);
+            byte[] value = decompress(bytes, HEADER_SIZE);
+            return new CacheEntry<>(codec.decode(value, 0, value.length), expirationTime);
+        }
+        return new CacheEntry<>(jsonCodec.decode(bytes, 0, bytes.length), 0);
+    }
+
+    byte[] toJSON(T value) {
+        return jsonCodec.encode(value);
+    }
+
+    private CacheCodec<T> codec(byte id) {
+        if (id == codec.id()) return codec;
+        if (id == jsonCodec.id()) return jsonCodec;     // written before switching codec
+        throw Exceptions.error("unknown cache codec, id={}", id);
+    }
+
+    private byte[] compress(byte[] value) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(value);
+            deflater.finish();
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(value.length / 2 + 4);
+            writeInt(stream, value.length);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                stream.write(buffer, 0, length);
+            }
+            return stream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress(byte[] bytes, int offset) {
+        int length = (int) readBytes(bytes, offset, 4);
+        byte[] value = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset + 4, bytes.length - offset - 4);
+            int position = 0;
+            while (position < length) {
+                int inflated = inflater.inflate(value, position, length - position);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) throw Exceptions.error("compressed cache value is truncated, length={}, inflated={}", length, position);
+                position += inflated;
+            }
+            return value;
+        } catch (DataFormatException e) {
+            throw Exceptions.error("failed to decompress cache value, error={}", e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void writeInt(ByteArrayOutputStream stream, int value) {
+        for (int i = 24; i >= 0; i -= 8) {
+            stream.write(value >>> i);
+        }
+    }
+
+    private void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    private long readLong(byte[] bytes, int offset) {
+        return readBytes(bytes, offset, 8);
+    }
+
+    private long readBytes(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,14 @@
+package core.framework.impl.cache;
+
+/**
+ * @author neo
+ */
+public final class CacheEntry<T> {
+    public final T value;   // null means absent, cached to not call loader again
+    public final long expirationTime;   // 0 if unknown, e.g. value written by previous version as plain json
+
+    CacheEntry(T value, long expirationTime) {
+        this.value = value;
+        this.expirationTime = expirationTime;
+    }
+}
@@ -3,57 +3,98 @@ package core.framework.impl.cache;
 import core.framework.api.cache.Cache;
 import core.framework.api.util.Charsets;
 import core.framework.api.util.Maps;
-import core.framework.impl.json.JSONReader;
-import core.framework.impl.json.JSONWriter;
+import core.framework.api.util.StopWatch;
+import core.framework.api.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 /**
+ * concurrent misses of same key within node are coalesced into one loader call, other callers wait for the loaded value,
+ * hot key is refreshed probabilistically before expiration (refer to "Optimal Probabilistic Cache Stampede Prevention"), so it doesn't expire on all callers at once,
+ * if refreshAfter is set, value older than it is returned as is and reloaded in background, value still expires after duration
+ *
  * @author neo
  */
 public class CacheImpl<T> implements Cache<T> {
+    private static final double EARLY_REFRESH_BETA = 1.0;   // greater than 1 favors earlier refresh
+    private static final Duration LOCK_WAIT_INTERVAL = Duration.ofMillis(50);
+
     public final String name;
     public final Type valueType;
     public final Duration duration;
-    private final CacheStore cacheStore;
-    private final JSONReader<T> reader;
-    private final JSONWriter<T> writer;
+    public final CacheContext<T> context;
+    final Map<String, CompletableFuture<T>> loadings = Maps.newConcurrentHashMap();
+    private final Logger logger = LoggerFactory.getLogger(CacheImpl.class);
+    public CacheStore cacheStore;
+    public Duration lockExpiration;     // if not null, only one node loads the same key at a time, others wait for loaded value until lock expires
+    public Duration absentExpiration;   // if not null, null returned by loader is cached as absent entry with shorter expiration, otherwise it is not cached
+    public Duration refreshAfter;       // if not null, stale value is returned and reloaded by refreshExecutor
+    public ExecutorService refreshExecutor;
+    private volatile long loadTime;     // elapsed time of last load in nanos, to estimate how early to refresh
 
     CacheImpl(String name, Type valueType, Duration duration, CacheStore cacheStore) {
         this.name = name;
         this.valueType = valueType;
         this.duration = duration;
         this.cacheStore = cacheStore;
-        reader = JSONReader.of(valueType);
-        writer = JSONWriter.of(valueType);
+        context = new CacheContext<>(valueType);
     }
 
     @Override
     public T get(String key, Function<String, T> loader) {
         String cacheKey = cacheKey(key);
-        byte[] cacheValue = cacheStore.get(cacheKey);
-        if (cacheValue == null) {
-            T value = loader.apply(key);
-            cacheStore.put(cacheKey, writer.toJSON(value), duration);
-            return value;
+        CacheEntry<T> entry = cacheStore.get(cacheKey, context);
+        if (entry == null) {
+            context.stats.misses.increment();
+            return load(key, cacheKey, loader, null);
+        }
+        context.stats.hits.increment();
+        if (refreshAfter != null) {
+            if (stale(entry)) submitRefresh(key, cacheKey, loader, entry);
+        } else if (refreshEarly(entry)) {
+            return load(key, cacheKey, loader, entry);
         }
-        return reader.fromJSON(cacheValue);
+        return entry.value;
     }
 
     public Optional<String> get(String key) {
-        byte[] result = cacheStore.get(cacheKey(key));
-        if (result == null) return Optional.empty();
-        return Optional.of(new String(result, Charsets.UTF_8));
+        CacheEntry<T> entry = cacheStore.get(cacheKey(key), context);
+        if (entry == null) return Optional.empty();
+        return Optional.of(new String(context.toJSON(entry.value), Charsets.UTF_8));
+    }
+
+    @Override
+    public Optional<T> getOptional(String key, Function<String, Optional<T>> loader) {
+        return Optional.ofNullable(get(key, k -> loader.apply(k).orElse(null)));
     }
 
     @Override
     public Map<String, T> getAll(List<String> keys, Function<String, T> loader) {
+        return getAllInBatch(keys, missedKeys -> {
+            Map<String, T> values = Maps.newHashMapWithExpectedSize(missedKeys.size());
+            for (String key : missedKeys) {
+                values.put(key, loader.apply(key));
+            }
+            return values;
+        });
+    }
+
+    @Override
+    public Map<String, T> getAllInBatch(List<String> keys, Function<List<String>, Map<String, T>> loader) {
         int size = keys.size();
         String[] cacheKeys = new String[size];
         int index = 0;
@@ -62,28 +103,61 @@ public class CacheImpl<T> implements Cache<T> {
             index++;
         }
         Map<String, T> values = new LinkedHashMap<>(size);
-        Map<String, byte[]> newValues = Maps.newHashMapWithExpectedSize(size);
-        Map<String, byte[]> cacheValues = cacheStore.getAll(cacheKeys);
+        Map<String, CompletableFuture<T>> loadingsByKey = Maps.newHashMap();     // keys being loaded by other threads
+        Map<String, CompletableFuture<T>> futures = Maps.newHashMap();           // keys to load by current thread
+        Map<String, CompletableFuture<T>> refreshes = Maps.newHashMap();         // stale keys to reload in background
+        Map<String, CacheEntry<T>> entries = cacheStore.getAll(cacheKeys, context);
         index = 0;
         for (String key : keys) {
             String cacheKey = cacheKeys[index];
-            byte[] cacheValue = cacheValues.get(cacheKey);
-            if (cacheValue == null) {
-                T value = loader.apply(key);
-                newValues.put(cacheKey, writer.toJSON(value));
-                values.put(key, value);
-            } else {
-                values.put(key, reader.fromJSON(cacheValue));
+            CacheEntry<T> entry = entries.get(cacheKey);
+            values.put(key, entry == null ? null : entry.value);    // keep order of keys
+            boolean stale = entry != null && refreshAfter != null && stale(entry);
+            if (entry == null || stale || refreshAfter == null && refreshEarly(entry)) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                CompletableFuture<T> previous = loadings.putIfAbsent(cacheKey, future);
+                if (previous == null) (stale ? refreshes : futures).put(key, future);
+                else if (entry == null) loadingsByKey.put(key, previous);
             }
             index++;
         }
-        if (!newValues.isEmpty()) cacheStore.putAll(newValues, duration);
+        context.stats.hits.add(entries.size());
+        context.stats.misses.add(size - entries.size());
+        if (!refreshes.isEmpty()) submitRefreshAll(refreshes, loader);
+        if (!futures.isEmpty()) loadAll(futures, loader, values);
+        loadingsByKey.forEach((key, future) -> values.put(key, await(future)));
         return values;
     }
 
+    private void loadAll(Map<String, CompletableFuture<T>> futures, Function<List<String>, Map<String, T>> loader, Map<String, T> values) {
+        Map<String, CacheEntry<T>> newEntries = Maps.newHashMapWithExpectedSize(futures.size());
+        Map<String, CacheEntry<T>> absentEntries = Maps.newHashMap();
+        try {
+            StopWatch watch = new StopWatch();
+            Map<String, T> loadedValues = loader.apply(new ArrayList<>(futures.keySet()));
+            loadTime = watch.elapsedTime();
+            context.stats.load(loadTime);
+            long now = System.currentTimeMillis();
+            for (String key : futures.keySet()) {
+                T value = loadedValues.get(key);
+                if (value != null) newEntries.put(cacheKey(key), new CacheEntry<>(value, now + duration.toMillis()));
+                else if (absentExpiration != null) absentEntries.put(cacheKey(key), new CacheEntry<>(null, now + absentExpiration.toMillis()));
+                values.put(key, value);
+            }
+            if (!newEntries.isEmpty()) cacheStore.putAll(newEntries, duration, context);
+            if (!absentEntries.isEmpty()) cacheStore.putAll(absentEntries, absentExpiration, context);
+            futures.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable e) {
+            futures.values().forEach(future -> future.completeExceptionally(e));
+            throw e;
+        } finally {
+            futures.forEach((key, future) -> loadings.remove(cacheKey(key), future));
+        }
+    }
+
     @Override
     public void put(String key, T value) {
-        cacheStore.put(cacheKey(key), writer.toJSON(value), duration);
+        cacheStore.put(cacheKey(key), new CacheEntry<>(value, System.currentTimeMillis() + duration.toMillis()), duration, context);
     }
 
     @Override
@@ -91,6 +165,131 @@ public class CacheImpl<T> implements Cache<T> {
         cacheStore.delete(cacheKey(key));
     }
 
+    // delete all keys of this cache, return number of deleted keys
+    public long flush() {
+        return cacheStore.deleteByPrefix(name + ":");
+    }
+
+    // current is the cached entry to refresh, or null if missed
+    private T load(String key, String cacheKey, Function<String, T> loader, CacheEntry<T> current) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> previous = loadings.putIfAbsent(cacheKey, future);
+        if (previous != null) {
+            if (current != null) return current.value;  // other thread is refreshing
+            return await(previous);
+        }
+        try {
+            T value = loadWithLock(key, cacheKey, loader, current);
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(cacheKey, future);
+        }
+    }
+
+    private void submitRefresh(String key, String cacheKey, Function<String, T> loader, CacheEntry<T> current) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (loadings.putIfAbsent(cacheKey, future) != null) return;     // other thread is loading
+        try {
+            refreshExecutor.submit(() -> refresh(key, cacheKey, loader, current, future));
+        } catch (RejectedExecutionException e) {    // executor is stopped during shutdown
+            logger.warn("failed to submit cache refresh, key={}", cacheKey, e);
+            future.complete(current.value);
+            loadings.remove(cacheKey, future);
+        }
+    }
+
+    private void refresh(String key, String cacheKey, Function<String, T> loader, CacheEntry<T> current, CompletableFuture<T> future) {
+        try {
+            future.complete(loadWithLock(key, cacheKey, loader, current));
+        } catch (Throwable e) {
+            logger.warn("failed to refresh cache, key={}, error={}", cacheKey, e.getMessage(), e);
+            future.completeExceptionally(e);
+        } finally {
+            loadings.remove(cacheKey, future);
+        }
+    }
+
+    private void submitRefreshAll(Map<String, CompletableFuture<T>> futures, Function<List<String>, Map<String, T>> loader) {
+        try {
+            refreshExecutor.submit(() -> refreshAll(futures, loader));
+        } catch (RejectedExecutionException e) {
+            logger.warn("failed to submit cache refresh, keys={}", futures.keySet(), e);
+            futures.forEach((key, future) -> {
+                future.cancel(false);
+                loadings.remove(cacheKey(key), future);
+            });
+        }
+    }
+
+    private void refreshAll(Map<String, CompletableFuture<T>> futures, Function<List<String>, Map<String, T>> loader) {
+        try {
+            loadAll(futures, loader, Maps.newHashMapWithExpectedSize(futures.size()));
+        } catch (Throwable e) {
+            logger.warn("failed to refresh cache, keys={}, error={}", futures.keySet(), e.getMessage(), e);
+        }
+    }
+
+    private T loadWithLock(String key, String cacheKey, Function<String, T> loader, CacheEntry<T> current) {
+        String lockToken = lockExpiration == null ? null : cacheStore.lock(cacheKey, lockExpiration);
+        if (lockExpiration != null && lockToken == null) {
+            if (current != null) return current.value;  // other node is refreshing
+            CacheEntry<T> entry = waitForLoadedEntry(cacheKey);
+            if (entry != null) return entry.value;
+            logger.warn("lock expired before other node loaded value, load value, key={}", cacheKey);
+        }
+        try {
+            StopWatch watch = new StopWatch();
+            T value = loader.apply(key);
+            loadTime = watch.elapsedTime();
+            context.stats.load(loadTime);
+            if (value != null) cacheStore.put(cacheKey, new CacheEntry<>(value, System.currentTimeMillis() + duration.toMillis()), duration, context);
+            else if (absentExpiration != null) cacheStore.put(cacheKey, new CacheEntry<>(null, System.currentTimeMillis() + absentExpiration.toMillis()), absentExpiration, context);
+            return value;
+        } finally {
+            if (lockToken != null) cacheStore.unlock(cacheKey, lockToken);
+        }
+    }
+
+    private CacheEntry<T> waitForLoadedEntry(String cacheKey) {
+        long end = System.currentTimeMillis() + lockExpiration.toMillis();
+        while (System.currentTimeMillis() < end) {
+            Threads.sleepRoughly(LOCK_WAIT_INTERVAL);
+            CacheEntry<T> entry = cacheStore.get(cacheKey, context);
+            if (entry != null) return entry;
+        }
+        return null;
+    }
+
+    private T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private boolean stale(CacheEntry<T> entry) {
+        if (entry.expirationTime == 0 || entry.value == null) return false;     // absent entry just expires
+        return System.currentTimeMillis() >= entry.expirationTime - duration.toMillis() + refreshAfter.toMillis();
+    }
+
+    private boolean refreshEarly(CacheEntry<T> entry) {
+        if (entry.expirationTime == 0) return false;    // plain json written to redis before cache().formatV1() has no expiration time
+        return refreshEarly(entry.expirationTime, System.currentTimeMillis(), loadTime / 1_000_000d, 1 - ThreadLocalRandom.current().nextDouble());
+    }
+
+    // random is within (0, 1], the closer to expiration and the longer to load, the more likely to refresh
+    static boolean refreshEarly(long expirationTime, long now, double loadTimeInMs, double random) {
+        return now - loadTimeInMs * EARLY_REFRESH_BETA * Math.log(random) >= expirationTime;
+    }
+
     private String cacheKey(String key) {
         return name + ":" + key;
     }
@@ -1,6 +1,5 @@
 package core.framework.impl.cache;
 
-import core.framework.api.cache.Cache;
 import core.framework.api.util.Exceptions;
 import core.framework.api.util.Maps;
 
@@ -22,7 +21,7 @@ public class CacheManager {
         this.cacheStore = cacheStore;
     }
 
-    public <T> Cache<T> add(String name, Type valueType, Duration duration) {
+    public <T> CacheImpl<T> add(String name, Type valueType, Duration duration) {
         new CacheTypeValidator(valueType).validate();
 
         CacheImpl<T> cache = new CacheImpl<>(name, valueType, duration, cacheStore);
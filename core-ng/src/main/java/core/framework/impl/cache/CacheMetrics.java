@@ -0,0 +1,82 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Maps;
+import core.framework.impl.log.stat.Metrics;
+
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public class CacheMetrics implements Metrics {
+    private final CacheManager cacheManager;
+    private final Map<String, Snapshot> previousSnapshots = Maps.newHashMap();
+
+    public CacheMetrics(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        for (CacheImpl<?> cache : cacheManager.caches()) {
+            CacheStats cacheStats = cache.context.stats;
+            Snapshot current = new Snapshot(cacheStats);
+            Snapshot previous = previousSnapshots.getOrDefault(cache.name, new Snapshot(current.loadTimes.length));
+            previousSnapshots.put(cache.name, current);
+
+            stats.put(statName(cache.name, "hits"), (double) (current.hits - previous.hits));
+            stats.put(statName(cache.name, "misses"), (double) (current.misses - previous.misses));
+            stats.put(statName(cache.name, "evictions"), (double) (current.evictions - previous.evictions));
+            long loads = current.loads - previous.loads;
+            stats.put(statName(cache.name, "loads"), (double) loads);
+            if (loads > 0) {
+                stats.put(statName(cache.name, "load_time_avg"), (current.loadTime - previous.loadTime) / (double) loads / 1_000_000);
+                long[] loadTimes = new long[current.loadTimes.length];
+                for (int i = 0; i < loadTimes.length; i++) {
+                    loadTimes[i] = current.loadTimes[i] - previous.loadTimes[i];
+                }
+                long p99 = cacheStats.loadTimes.percentile(loadTimes, 0.99);
+                if (p99 > 0) stats.put(statName(cache.name, "load_time_p99"), (double) p99);
+            }
+            long encodes = current.encodes - previous.encodes;
+            if (encodes > 0) stats.put(statName(cache.name, "value_size_avg"), (current.encodedBytes - previous.encodedBytes) / (double) encodes);
+        }
+    }
+
+    private String statName(String name, String statName) {
+        return "cache_" + name + "_" + statName;
+    }
+
+    private static final class Snapshot {
+        final long hits;
+        final long misses;
+        final long evictions;
+        final long loads;
+        final long loadTime;
+        final long encodes;
+        final long encodedBytes;
+        final long[] loadTimes;
+
+        Snapshot(CacheStats stats) {
+            hits = stats.hits.sum();
+            misses = stats.misses.sum();
+            evictions = stats.evictions.sum();
+            loads = stats.loads.sum();
+            loadTime = stats.loadTime.sum();
+            encodes = stats.encodes.sum();
+            encodedBytes = stats.encodedBytes.sum();
+            loadTimes = stats.loadTimes.counts();
+        }
+
+        Snapshot(int loadTimeBuckets) {
+            hits = 0;
+            misses = 0;
+            evictions = 0;
+            loads = 0;
+            loadTime = 0;
+            encodes = 0;
+            encodedBytes = 0;
+            loadTimes = new long[loadTimeBuckets];
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.log.stat.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author neo
+ */
+public final class CacheStats {
+    public final LongAdder hits = new LongAdder();
+    public final LongAdder misses = new LongAdder();
+    public final LongAdder loads = new LongAdder();     // number of loader calls, batch loader counts once
+    public final LongAdder loadTime = new LongAdder();  // in nanos
+    public final LongAdder evictions = new LongAdder(); // evicted from local cache store by size limit
+    public final LongAdder encodes = new LongAdder();
+    public final LongAdder encodedBytes = new LongAdder();
+    public final Histogram loadTimes = new Histogram(1, 5, 10, 50, 100, 500, 1000, 5000);      // in ms
+    public final Histogram valueSizes = new Histogram(256, 1024, 4096, 16384, 65536, 262144);  // encoded size in bytes, after compression
+
+    void load(long elapsedTime) {
+        loads.increment();
+        loadTime.add(elapsedTime);
+        loadTimes.record(elapsedTime / 1_000_000);
+    }
+
+    void encode(int size) {
+        encodes.increment();
+        encodedBytes.add(size);
+        valueSizes.record(size);
+    }
+}
@@ -7,13 +7,19 @@ import java.util.Map;
  * @author neo
  */
 public interface CacheStore {   // all keys here are direct cacheKey, not the key passed to Cache<T>
-    byte[] get(String key);
+    <T> CacheEntry<T> get(String key, CacheContext<T> context);
 
-    Map<String, byte[]> getAll(String[] keys);
+    <T> Map<String, CacheEntry<T>> getAll(String[] keys, CacheContext<T> context);
 
-    void put(String key, byte[] value, Duration expiration);
+    <T> void put(String key, CacheEntry<T> entry, Duration expiration, CacheContext<T> context);
 
-    void putAll(Map<String, byte[]> values, Duration expiration);
+    <T> void putAll(Map<String, CacheEntry<T>> entries, Duration expiration, CacheContext<T> context);
 
     void delete(String key);
+
+    long deleteByPrefix(String prefix);     // return number of deleted keys
+
+    String lock(String key, Duration expiration);  // to let only one node load the key, return token if locked by current caller, or null if locked by other
+
+    void unlock(String key, String token);  // only release the lock still held by token, lock may expire and be acquired by other during long load
 }
@@ -0,0 +1,19 @@
+package core.framework.impl.cache;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import java.util.List;
+
+/**
+ * @author neo
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class InvalidateLocalCacheMessage {
+    @XmlElement(name = "sender")
+    public String sender;
+    @XmlElement(name = "keys")
+    public List<String> keys;
+    @XmlElement(name = "prefix")
+    public String prefix;
+}
@@ -0,0 +1,36 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.json.JSONReader;
+import core.framework.impl.json.JSONWriter;
+
+import java.lang.reflect.Type;
+
+/**
+ * @author neo
+ */
+public final class JSONCacheCodec<T> implements CacheCodec<T> {
+    static final byte ID = 0;
+
+    private final JSONReader<T> reader;
+    private final JSONWriter<T> writer;
+
+    public JSONCacheCodec(Type valueType) {
+        reader = JSONReader.of(valueType);
+        writer = JSONWriter.of(valueType);
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        return writer.toJSON(value);
+    }
+
+    @Override
+    public T decode(byte[] bytes, int offset, int length) {
+        return reader.fromJSON(bytes, offset, length);
+    }
+}
@@ -0,0 +1,74 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.json.JSONReader;
+import core.framework.impl.json.JSONWriter;
+import core.framework.impl.redis.RedisChannelListener;
+import core.framework.impl.redis.RedisImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * broadcast changed keys thru redis pub/sub, to keep local cache of all nodes consistent with redis
+ *
+ * @author neo
+ */
+public class LocalCacheInvalidator implements RedisChannelListener {
+    public static final String CHANNEL = "cache:invalidate";
+
+    private final Logger logger = LoggerFactory.getLogger(LocalCacheInvalidator.class);
+    private final String sender = UUID.randomUUID().toString();     // to skip message sent by current process, local cache is already updated
+    private final RedisImpl redis;
+    private final LocalCacheStore localCache;
+    private final JSONReader<InvalidateLocalCacheMessage> reader = JSONReader.of(InvalidateLocalCacheMessage.class);
+    private final JSONWriter<InvalidateLocalCacheMessage> writer = JSONWriter.of(InvalidateLocalCacheMessage.class);
+
+    public LocalCacheInvalidator(RedisImpl redis, LocalCacheStore localCache) {
+        this.redis = redis;
+        this.localCache = localCache;
+    }
+
+    void invalidate(List<String> keys) {
+        InvalidateLocalCacheMessage message = new InvalidateLocalCacheMessage();
+        message.sender = sender;
+        message.keys = keys;
+        publish(message);
+    }
+
+    void invalidateByPrefix(String prefix) {
+        InvalidateLocalCacheMessage message = new InvalidateLocalCacheMessage();
+        message.sender = sender;
+        message.keys = Collections.emptyList();     // keep keys not null for nodes running previous version
+        message.prefix = prefix;
+        publish(message);
+    }
+
+    private void publish(InvalidateLocalCacheMessage message) {
+        try {
+            redis.publish(CHANNEL, writer.toJSON(message));
+        } catch (JedisConnectionException e) {
+            logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onSubscribe() {
+        logger.info("clear local cache, messages may be lost before subscription");
+        localCache.clear();
+    }
+
+    @Override
+    public void onMessage(byte[] message) {
+        InvalidateLocalCacheMessage invalidateMessage = reader.fromJSON(message);
+        if (sender.equals(invalidateMessage.sender)) return;
+        logger.debug("invalidate local cache, keys={}, prefix={}", invalidateMessage.keys, invalidateMessage.prefix);
+        for (String key : invalidateMessage.keys) {
+            localCache.delete(key);
+        }
+        if (invalidateMessage.prefix != null) localCache.deleteByPrefix(invalidateMessage.prefix);
+    }
+}
@@ -0,0 +1,26 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.log.stat.Metrics;
+
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public class LocalCacheMetrics implements Metrics {
+    private final LocalCacheStore cacheStore;
+    private long previousEvictions;
+
+    public LocalCacheMetrics(LocalCacheStore cacheStore) {
+        this.cacheStore = cacheStore;
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        stats.put("cache_local_size", (double) cacheStore.size());
+        stats.put("cache_local_bytes", (double) cacheStore.bytes.get());
+        long evictions = cacheStore.evictions.get();
+        stats.put("cache_local_evictions", (double) (evictions - previousEvictions));
+        previousEvictions = evictions;
+    }
+}
@@ -0,0 +1,145 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Strings;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * file format is [MAGIC][count][entry...], entry is [expiration time][duration][key length][key][value length][value],
+ * file is written thru direct buffer and read thru buffered stream in sequence, snapshot can be larger than 2G which single memory mapped region can not hold
+ *
+ * @author neo
+ */
+final class LocalCacheSnapshot {
+    private static final int MAGIC = 0x4C435331;    // "LCS1"
+    private static final int ENTRY_HEADER_SIZE = 8 + 8 + 4;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final Path path;
+
+    LocalCacheSnapshot(Path path) {
+        this.path = path;
+    }
+
+    void save(List<Entry> entries) {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC);
+            buffer.putInt(entries.size());
+            for (Entry entry : entries) {
+                if (buffer.remaining() < ENTRY_HEADER_SIZE) flush(channel, buffer);
+                buffer.putLong(entry.expirationTime);
+                buffer.putLong(entry.duration);
+                buffer.putInt(entry.key.length);
+                put(channel, buffer, entry.key);
+                if (buffer.remaining() < 4) flush(channel, buffer);
+                buffer.putInt(entry.value.length);
+                put(channel, buffer, entry.value);
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(tempPath, path, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void put(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flush(channel, buffer);
+            if (bytes.length > buffer.capacity()) {     // write large value directly
+                write(channel, ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        write(channel, buffer);
+        buffer.clear();
+    }
+
+    private void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // return null if snapshot not found
+    List<Entry> load() {
+        if (!Files.exists(path)) return null;
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (stream.readInt() != MAGIC) throw new Error("invalid local cache snapshot, path=" + path);
+            int count = stream.readInt();
+            List<Entry> entries = Lists.newArrayList();
+            for (int i = 0; i < count; i++) {
+                long expirationTime = stream.readLong();
+                long duration = stream.readLong();
+                byte[] key = new byte[stream.readInt()];
+                stream.readFully(key);
+                byte[] value = new byte[stream.readInt()];
+                stream.readFully(value);
+                entries.add(new Entry(key, value, expirationTime, duration));
+            }
+            return entries;
+        } catch (EOFException | NegativeArraySizeException e) {
+            throw new Error("local cache snapshot is truncated, path=" + path, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static final class Entry {
+        final byte[] key;
+        final byte[] value;
+        final long expirationTime;
+        final long duration;
+
+        Entry(byte[] key, byte[] value, long expirationTime, long duration) {
+            this.key = key;
+            this.value = value;
+            this.expirationTime = expirationTime;
+            this.duration = duration;
+        }
+
+        Entry(String key, byte[] value, long expirationTime, long duration) {
+            this(Strings.bytes(key), value, expirationTime, duration);
+        }
+
+        String key() {
+            return new String(key, Charsets.UTF_8);
+        }
+    }
+}
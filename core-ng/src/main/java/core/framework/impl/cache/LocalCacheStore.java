@@ -1,75 +1,403 @@
 package core.framework.impl.cache;
 
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * bounded by entry count and estimated memory size, evicts by segmented LRU,
+ * new item goes to probation segment and is promoted to protected segment when hit again, so scanning one-off keys only flushes probation segment,
+ * expired items are removed on write in expiration order, instead of sweeping the whole map,
+ * value object of immutable cache is kept as is, so local hit does not deserialize,
+ * unexpired items can be saved to snapshot file on shutdown and loaded on startup, to warm up local cache after restart
+ *
  * @author neo
  */
 public class LocalCacheStore implements CacheStore {
+    private static final int ITEM_OVERHEAD = 128;   // rough size of map entry, item, key/value object headers and references
+    private static final double PROTECTED_RATIO = 0.8;
+
+    final AccessQueue probationQueue = new AccessQueue();
+    final AccessQueue protectedQueue = new AccessQueue();
     private final Logger logger = LoggerFactory.getLogger(LocalCacheStore.class);
     private final Map<String, CacheItem> caches = Maps.newConcurrentHashMap();
+    private final Map<Long, ExpirationQueue> expirationQueues = Maps.newHashMap();    // group by expiration duration, items within same queue expire in order of put
+    private final ReentrantLock lock = new ReentrantLock();     // guards queues, map is only updated within lock
+    public int maxSize = Integer.MAX_VALUE;
+    public long maxBytes = Runtime.getRuntime().maxMemory() / 10;   // use 10% of heap at most by default
+    final AtomicLong bytes = new AtomicLong();
+    final AtomicLong evictions = new AtomicLong();
+    private volatile long invalidations;    // incremented by every delete within lock, to detect delete during remote read
 
     @Override
-    public byte[] get(String key) {
+    @SuppressWarnings("unchecked")
+    public <T> CacheEntry<T> get(String key, CacheContext<T> context) {
+        CacheItem item = item(key);
+        if (item == null) return null;
+        Object value = item.value;
+        if (!(value instanceof byte[])) return (CacheEntry<T>) value;
+        CacheEntry<T> entry;
+        try {
+            entry = context.decode((byte[]) value);
+        } catch (RuntimeException e) {
+            if (item.context != null) throw e;
+            // saved by previous version with different value type, treat as miss to reload
+            logger.warn("failed to decode cache item loaded from snapshot, key={}, error={}", key, e.getMessage(), e);
+            removeItem(item);
+            return null;
+        }
+        if (item.context == null) {     // loaded from snapshot
+            item.context = context;
+            if (context.immutable) item.value = entry;
+        }
+        return entry;
+    }
+
+    private void removeItem(CacheItem item) {
+        lock.lock();
+        try {
+            if (!item.removed) remove(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CacheItem item(String key) {
         CacheItem item = caches.get(key);
         if (item == null) return null;
         if (item.expired(System.currentTimeMillis())) {
-            caches.remove(key);
+            removeItem(item);
             return null;
         }
-        return item.value;
+        if (lock.tryLock()) {   // not to block read if other thread is writing, skipped access only makes eviction order approximate
+            try {
+                if (!item.removed) access(item);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return item;
     }
 
     @Override
-    public Map<String, byte[]> getAll(String[] keys) {
-        Map<String, byte[]> results = Maps.newHashMapWithExpectedSize(keys.length);
+    public <T> Map<String, CacheEntry<T>> getAll(String[] keys, CacheContext<T> context) {
+        Map<String, CacheEntry<T>> results = Maps.newHashMapWithExpectedSize(keys.length);
         for (String key : keys) {
-            byte[] value = get(key);
-            if (value != null) results.put(key, value);
+            CacheEntry<T> entry = get(key, context);
+            if (entry != null) results.put(key, entry);
         }
         return results;
     }
 
     @Override
-    public void put(String key, byte[] value, Duration expiration) {
+    public <T> void put(String key, CacheEntry<T> entry, Duration expiration, CacheContext<T> context) {
+        put(key, entry, expiration, context, -1);
+    }
+
+    // item expires no later than entry, e.g. value read from redis with shorter remaining ttl,
+    // put is skipped if any key is deleted after invalidations() was read, not to put back stale value read before invalidation, -1 to always put
+    <T> void put(String key, CacheEntry<T> entry, Duration expiration, CacheContext<T> context, long expectedInvalidations) {
         long now = System.currentTimeMillis();
-        caches.put(key, new CacheItem(value, now + expiration.toMillis()));
+        if (entry.expirationTime > 0 && entry.expirationTime <= now) return;
+        Object value;
+        int valueSize;
+        if (context.immutable) {
+            value = entry;
+            valueSize = context.estimateSize(entry);    // not to serialize every immutable value only to estimate memory size
+        } else {
+            byte[] bytes = context.encode(entry);
+            value = bytes;
+            valueSize = bytes.length;
+        }
+        long duration = expiration.toMillis();
+        long expirationTime = entry.expirationTime > 0 ? Math.min(now + duration, entry.expirationTime) : now + duration;   // item with earlier expiration time than queue order is removed on read or when reaching queue head
+        CacheItem item = new CacheItem(key, value, expirationTime, 2L * key.length() + valueSize + ITEM_OVERHEAD, context);
+        lock.lock();
+        try {
+            if (expectedInvalidations >= 0 && expectedInvalidations != invalidations) return;
+            CacheItem previous = caches.put(key, item);
+            boolean promoted = previous != null && previous.promoted;
+            if (previous != null) remove(previous);
+            if (promoted) {     // keep updated hot item in protected segment
+                item.promoted = true;
+                protectedQueue.add(item);
+            } else {
+                probationQueue.add(item);
+            }
+            expirationQueues.computeIfAbsent(duration, ExpirationQueue::new).add(item);
+            bytes.addAndGet(item.size);
+
+            expire(now);
+            evict();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public void putAll(Map<String, byte[]> values, Duration expiration) {
-        values.forEach((key, value) -> put(key, value, expiration));
+    public <T> void putAll(Map<String, CacheEntry<T>> entries, Duration expiration, CacheContext<T> context) {
+        entries.forEach((key, entry) -> put(key, entry, expiration, context));
     }
 
     @Override
     public void delete(String key) {
-        caches.remove(key);
+        lock.lock();
+        try {
+            CacheItem item = caches.get(key);
+            if (item != null) remove(item);
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long deleteByPrefix(String prefix) {
+        lock.lock();
+        try {
+            long deleted = 0;
+            for (CacheItem item : caches.values()) {
+                if (item.key.startsWith(prefix)) {
+                    remove(item);
+                    deleted++;
+                }
+            }
+            invalidations++;
+            return deleted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String lock(String key, Duration expiration) {
+        return "local";    // loads within single node are already coalesced by cache
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            caches.values().forEach(this::remove);
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void cleanup() {
-        logger.info("clean up local cache store");
-        long now = System.currentTimeMillis();
-        caches.forEach((key, value) -> {
-            if (value.expired(now)) caches.remove(key);
-        });
+        lock.lock();
+        try {
+            int size = caches.size();
+            expire(System.currentTimeMillis());
+            logger.debug("clean up local cache store, removed={}", size - caches.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void saveSnapshot(Path path) {
+        List<CacheItem> items = Lists.newArrayList();
+        lock.lock();    // only copy item references within lock, not to block readers while serializing
+        try {
+            long now = System.currentTimeMillis();
+            for (CacheItem item : caches.values()) {
+                if (!item.expired(now)) items.add(item);
+            }
+        } finally {
+            lock.unlock();
+        }
+        List<LocalCacheSnapshot.Entry> entries = new ArrayList<>(items.size());
+        for (CacheItem item : items) {
+            Object value = item.value;
+            byte[] bytes = value instanceof byte[] ? (byte[]) value : ((CacheContext) item.context).serialize((CacheEntry) value);  // not to count snapshot as encodes in cache stats
+            entries.add(new LocalCacheSnapshot.Entry(item.key, bytes, item.expirationTime, item.expirationQueue.duration));
+        }
+        try {
+            new LocalCacheSnapshot(path).save(entries);
+            logger.info("saved local cache snapshot, path={}, entries={}", path, entries.size());
+        } catch (UncheckedIOException e) {     // called by shutdown hook, not to fail shutdown, cache will be warmed up by loading
+            logger.warn("failed to save local cache snapshot, path={}, error={}", path, e.getMessage(), e);
+        }
+    }
+
+    public void loadSnapshot(Path path) {
+        LocalCacheSnapshot snapshot = new LocalCacheSnapshot(path);
+        List<LocalCacheSnapshot.Entry> entries = snapshot.load();
+        if (entries == null) {
+            logger.info("local cache snapshot not found, path={}", path);
+            return;
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.expirationTime));  // keep items within expiration queue in order
+        int loaded = 0;
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (LocalCacheSnapshot.Entry entry : entries) {
+                if (now >= entry.expirationTime) continue;
+                String key = entry.key();
+                if (caches.containsKey(key)) continue;
+                CacheItem item = new CacheItem(key, entry.value, entry.expirationTime, 2L * key.length() + entry.value.length + ITEM_OVERHEAD, null);
+                caches.put(key, item);
+                probationQueue.add(item);
+                expirationQueues.computeIfAbsent(entry.duration, ExpirationQueue::new).add(item);
+                bytes.addAndGet(item.size);
+                loaded++;
+            }
+            evict();
+        } finally {
+            lock.unlock();
+        }
+        snapshot.delete();  // not to load same snapshot again if process is killed before next save
+        logger.info("loaded local cache snapshot, path={}, entries={}, loaded={}", path, entries.size(), loaded);
+    }
+
+    long invalidations() {
+        return invalidations;
+    }
+
+    public int size() {
+        return caches.size();
     }
 
-    public static class CacheItem {
-        final byte[] value;
+    private void access(CacheItem item) {
+        if (item.promoted) {
+            protectedQueue.remove(item);
+            protectedQueue.add(item);
+        } else {
+            probationQueue.remove(item);
+            item.promoted = true;
+            protectedQueue.add(item);
+            while (protectedQueue.size > 1 && (protectedQueue.size > maxSize * PROTECTED_RATIO || protectedQueue.bytes > maxBytes * PROTECTED_RATIO)) {
+                CacheItem demoted = protectedQueue.head;
+                protectedQueue.remove(demoted);
+                demoted.promoted = false;
+                probationQueue.add(demoted);
+            }
+        }
+    }
+
+    private void expire(long now) {
+        for (ExpirationQueue queue : expirationQueues.values()) {
+            while (queue.head != null && queue.head.expired(now)) {
+                remove(queue.head);
+            }
+        }
+    }
+
+    private void evict() {
+        while (probationQueue.size + protectedQueue.size > maxSize || bytes.get() > maxBytes) {
+            CacheItem item = probationQueue.head != null ? probationQueue.head : protectedQueue.head;
+            if (item == null) return;
+            logger.debug("evict local cache, key={}", item.key);
+            remove(item);
+            evictions.incrementAndGet();
+            if (item.context != null) item.context.stats.evictions.increment();
+        }
+    }
+
+    private void remove(CacheItem item) {
+        caches.remove(item.key, item);
+        if (item.promoted) protectedQueue.remove(item);
+        else probationQueue.remove(item);
+        item.expirationQueue.remove(item);
+        bytes.addAndGet(-item.size);
+        item.removed = true;
+    }
+
+    static final class CacheItem {
+        final String key;
         final long expirationTime;
+        final long size;
+        volatile Object value;              // serialized bytes, or entry object if immutable, context is assigned before value, so saveSnapshot() sees context of entry object
+        volatile CacheContext<?> context;   // of the cache which item belongs to, null if loaded from snapshot and not accessed yet
+        boolean promoted;
+        boolean removed;
+        CacheItem previous;     // in probation or protected queue, by access order
+        CacheItem next;
+        ExpirationQueue expirationQueue;
+        CacheItem previousToExpire;
+        CacheItem nextToExpire;
 
-        public CacheItem(byte[] value, long expirationTime) {
+        CacheItem(String key, Object value, long expirationTime, long size, CacheContext<?> context) {
+            this.key = key;
             this.value = value;
             this.expirationTime = expirationTime;
+            this.size = size;
+            this.context = context;
         }
 
-        public boolean expired(long now) {
+        boolean expired(long now) {
             return now >= expirationTime;
         }
     }
+
+    static final class AccessQueue {
+        CacheItem head;     // least recently used
+        CacheItem tail;
+        int size;
+        long bytes;
+
+        void add(CacheItem item) {
+            item.previous = tail;
+            if (tail == null) head = item;
+            else tail.next = item;
+            tail = item;
+            size++;
+            bytes += item.size;
+        }
+
+        void remove(CacheItem item) {
+            if (item.previous == null) head = item.next;
+            else item.previous.next = item.next;
+            if (item.next == null) tail = item.previous;
+            else item.next.previous = item.previous;
+            item.previous = null;
+            item.next = null;
+            size--;
+            bytes -= item.size;
+        }
+    }
+
+    static final class ExpirationQueue {
+        final long duration;
+        CacheItem head;     // expires first
+        CacheItem tail;
+
+        ExpirationQueue(long duration) {
+            this.duration = duration;
+        }
+
+        void add(CacheItem item) {
+            item.expirationQueue = this;
+            item.previousToExpire = tail;
+            if (tail == null) head = item;
+            else tail.nextToExpire = item;
+            tail = item;
+        }
+
+        void remove(CacheItem item) {
+            if (item.previousToExpire == null) head = item.nextToExpire;
+            else item.previousToExpire.nextToExpire = item.nextToExpire;
+            if (item.nextToExpire == null) tail = item.previousToExpire;
+            else item.nextToExpire.previousToExpire = item.previousToExpire;
+            item.previousToExpire = null;
+            item.nextToExpire = null;
+        }
+    }
 }
@@ -1,7 +1,10 @@
 package core.framework.impl.cache;
 
+import core.framework.api.redis.RedisScript;
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
-import core.framework.impl.redis.RedisImpl;
+import core.framework.api.util.Randoms;
+import core.framework.impl.redis.ShardedRedisImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.exceptions.JedisConnectionException;
@@ -13,18 +16,23 @@ import java.util.Map;
  * @author neo
  */
 public class RedisCacheStore implements CacheStore {
+    // compare and delete, not to delete lock of other node if current one expired during loading
+    static final RedisScript<Long> UNLOCK = RedisScript.returnLong("if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end");
+
     private final Logger logger = LoggerFactory.getLogger(RedisCacheStore.class);
 
-    private final RedisImpl redis;
+    private final ShardedRedisImpl redis;
 
-    public RedisCacheStore(RedisImpl redis) {
+    public RedisCacheStore(ShardedRedisImpl redis) {
         this.redis = redis;
     }
 
     @Override
-    public byte[] get(String key) {
+    public <T> CacheEntry<T> get(String key, CacheContext<T> context) {
         try {
-            return redis.getBytes(key);
+            byte[] value = redis.getBytes(key);
+            if (value == null) return null;
+            return context.decode(value);
         } catch (JedisConnectionException e) {
             logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
             return null;
@@ -32,9 +40,12 @@ public class RedisCacheStore implements CacheStore {
     }
 
     @Override
-    public Map<String, byte[]> getAll(String[] keys) {
+    public <T> Map<String, CacheEntry<T>> getAll(String[] keys, CacheContext<T> context) {
         try {
-            return redis.multiGetBytes(keys);
+            Map<String, byte[]> values = redis.multiGetBytes(keys);
+            Map<String, CacheEntry<T>> results = Maps.newHashMapWithExpectedSize(values.size());
+            values.forEach((key, value) -> results.put(key, context.decode(value)));
+            return results;
         } catch (JedisConnectionException e) {
             logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
             return Maps.newHashMap();
@@ -42,18 +53,20 @@ public class RedisCacheStore implements CacheStore {
     }
 
     @Override
-    public void put(String key, byte[] value, Duration expiration) {
+    public <T> void put(String key, CacheEntry<T> entry, Duration expiration, CacheContext<T> context) {
         try {
-            redis.set(key, value, expiration);
+            redis.set(key, context.encodeShared(entry), expiration);
         } catch (JedisConnectionException e) {
             logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
         }
     }
 
     @Override
-    public void putAll(Map<String, byte[]> values, Duration expiration) {
+    public <T> void putAll(Map<String, CacheEntry<T>> entries, Duration expiration, CacheContext<T> context) {
         try {
-            redis.multiSet(values, expiration);
+            Map<String, byte[]> redisValues = Maps.newHashMapWithExpectedSize(entries.size());
+            entries.forEach((key, entry) -> redisValues.put(key, context.encodeShared(entry)));
+            redis.multiSet(redisValues, expiration);
         } catch (JedisConnectionException e) {
             logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
         }
@@ -67,4 +80,33 @@ public class RedisCacheStore implements CacheStore {
             logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
         }
     }
+
+    @Override
+    public long deleteByPrefix(String prefix) {
+        return redis.delByPattern(prefix + "*");    // not to ignore connection error, caller must know whether keys are deleted
+    }
+
+    @Override
+    public String lock(String key, Duration expiration) {
+        String token = Randoms.alphaNumeric(16);
+        try {
+            return redis.setIfAbsent(lockKey(key), token, expiration) ? token : null;
+        } catch (JedisConnectionException e) {
+            logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
+            return token;    // redis is not available, not to block loading
+        }
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        try {
+            redis.eval(UNLOCK, Lists.newArrayList(lockKey(key)), token);
+        } catch (JedisConnectionException e) {
+            logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
+        }
+    }
+
+    private String lockKey(String key) {
+        return "lock:" + key;
+    }
 }
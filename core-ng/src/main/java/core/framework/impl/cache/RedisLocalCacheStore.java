@@ -0,0 +1,128 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Maps;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * keep hot values in local memory in front of redis, local values expire in short time or with remaining ttl in redis if shorter,
+ * and changes are broadcast to other nodes to invalidate their local values, value read from redis is not put to local if invalidation arrives during the read
+ *
+ * @author neo
+ */
+public class RedisLocalCacheStore implements CacheStore {
+    final LongAdder localHits = new LongAdder();
+    final LongAdder remoteHits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    private final LocalCacheStore localCache;
+    private final CacheStore remoteCache;
+    private final LocalCacheInvalidator invalidator;
+    private final Duration localExpiration;
+
+    public RedisLocalCacheStore(LocalCacheStore localCache, CacheStore remoteCache, LocalCacheInvalidator invalidator, Duration localExpiration) {
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidator = invalidator;
+        this.localExpiration = localExpiration;
+    }
+
+    @Override
+    public <T> CacheEntry<T> get(String key, CacheContext<T> context) {
+        CacheEntry<T> entry = localCache.get(key, context);
+        if (entry != null) {
+            localHits.increment();
+            return entry;
+        }
+        long invalidations = localCache.invalidations();
+        entry = remoteCache.get(key, context);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        localCache.put(key, entry, localExpiration, context, invalidations);
+        return entry;
+    }
+
+    @Override
+    public <T> Map<String, CacheEntry<T>> getAll(String[] keys, CacheContext<T> context) {
+        Map<String, CacheEntry<T>> results = Maps.newHashMapWithExpectedSize(keys.length);
+        List<String> remoteKeys = new ArrayList<>(keys.length);
+        for (String key : keys) {
+            CacheEntry<T> entry = localCache.get(key, context);
+            if (entry == null) {
+                remoteKeys.add(key);
+            } else {
+                results.put(key, entry);
+            }
+        }
+        localHits.add(results.size());
+        if (!remoteKeys.isEmpty()) {
+            long invalidations = localCache.invalidations();
+            Map<String, CacheEntry<T>> remoteValues = remoteCache.getAll(remoteKeys.toArray(new String[remoteKeys.size()]), context);
+            remoteValues.forEach((key, entry) -> localCache.put(key, entry, localExpiration, context, invalidations));
+            remoteHits.add(remoteValues.size());
+            misses.add(remoteKeys.size() - remoteValues.size());
+            results.putAll(remoteValues);
+        }
+        return results;
+    }
+
+    @Override
+    public <T> void put(String key, CacheEntry<T> entry, Duration expiration, CacheContext<T> context) {
+        remoteCache.put(key, entry, expiration, context);
+        localCache.put(key, entry, localExpiration, context);
+        invalidator.invalidate(Collections.singletonList(key));
+    }
+
+    @Override
+    public <T> void putAll(Map<String, CacheEntry<T>> entries, Duration expiration, CacheContext<T> context) {
+        remoteCache.putAll(entries, expiration, context);
+        localCache.putAll(entries, localExpiration, context);
+        invalidator.invalidate(new ArrayList<>(entries.keySet()));
+    }
+
+    @Override
+    public void delete(String key) {
+        remoteCache.delete(key);
+        localCache.delete(key);
+        invalidator.invalidate(Collections.singletonList(key));
+    }
+
+    @Override
+    public long deleteByPrefix(String prefix) {
+        long deleted = remoteCache.deleteByPrefix(prefix);
+        localCache.deleteByPrefix(prefix);
+        invalidator.invalidateByPrefix(prefix);
+        return deleted;
+    }
+
+    @Override
+    public String lock(String key, Duration expiration) {
+        return remoteCache.lock(key, expiration);
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        remoteCache.unlock(key, token);
+    }
+
+    public double localHitRate() {
+        return rate(localHits.sum());
+    }
+
+    public double remoteHitRate() {
+        return rate(remoteHits.sum());
+    }
+
+    private double rate(long hits) {
+        long total = localHits.sum() + remoteHits.sum() + misses.sum();
+        if (total == 0) return 0;
+        return hits / (double) total;
+    }
+}
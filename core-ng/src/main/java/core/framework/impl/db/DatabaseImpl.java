@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -40,6 +41,10 @@ public final class DatabaseImpl implements Database {
     public String user;
     public String password;
     long slowOperationThresholdInNanos = Duration.ofSeconds(5).toNanos();
+    Dialect dialect;
+    int batchMaxRows = 1000;
+    int batchMaxBytes = 1024 * 1024;     // mysql max_allowed_packet is 4M by default, estimated size is rough, keep enough room
+    boolean rewriteBatch;
     private Properties driverProperties;
     private Duration timeout;
     private Driver driver;
@@ -47,10 +52,11 @@ public final class DatabaseImpl implements Database {
     public DatabaseImpl() {
         initializeRowMappers();
 
-        pool = new Pool<>(this::createConnection, Connection::close);
+        pool = new Pool<>(this::createConnection, this::closeConnection);
         pool.name("db");
         pool.size(5, 50);    // default optimization for AWS medium/large instances
         pool.maxIdleTime(Duration.ofHours(2));  // make sure db server does not kill connection shorter than this, e.g. MySQL default wait_timeout is 8 hours
+        pool.validator(connection -> connection.isValid((int) timeout.getSeconds()));
 
         operation = new DatabaseOperation(pool);
         timeout(Duration.ofSeconds(15));
@@ -82,6 +88,10 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    private void closeConnection(Connection connection) throws SQLException {
+        operation.closeConnection(connection);
+    }
+
     private Properties driverProperties() {
         Properties properties = new Properties();
         if (user != null) properties.put("user", user);
@@ -113,6 +123,8 @@ public final class DatabaseImpl implements Database {
         logger.info("set database connection url, url={}", url);
         this.url = url;
         driver = driver(url);
+        dialect = dialect(url);
+        if (url.startsWith("jdbc:mysql:")) operation.fetchSize = Integer.MIN_VALUE;   // mysql driver streams result set row by row only with this value
     }
 
     private Driver driver(String url) {
@@ -131,6 +143,26 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    private Dialect dialect(String url) {
+        if (url.startsWith("jdbc:mysql:")) return Dialect.MYSQL;
+        if (url.startsWith("jdbc:hsqldb:")) return Dialect.HSQLDB;
+        return Dialect.ORACLE;
+    }
+
+    public void batchSize(int maxRows, int maxBytes) {
+        if (maxRows <= 0 || maxBytes <= 0) throw Exceptions.error("batch size must be greater than 0, maxRows={}, maxBytes={}", maxRows, maxBytes);
+        batchMaxRows = maxRows;
+        batchMaxBytes = maxBytes;
+    }
+
+    public void rewriteBatch(boolean rewriteBatch) {
+        this.rewriteBatch = rewriteBatch;
+    }
+
+    public void statementCacheSize(int size) {
+        operation.statementCacheSize = size;
+    }
+
     public void slowOperationThreshold(Duration slowOperationThreshold) {
         slowOperationThresholdInNanos = slowOperationThreshold.toNanos();
     }
@@ -176,6 +208,20 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    @Override
+    public <T> void forEach(String sql, Class<T> viewClass, Consumer<T> consumer, Object... params) {
+        StopWatch watch = new StopWatch();
+        Integer total = null;
+        try {
+            total = operation.forEach(sql, rowMapper(viewClass), consumer, params);
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("db", elapsedTime);
+            logger.debug("forEach, sql={}, params={}, total={}, elapsedTime={}", sql, params, total, elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
     @Override
     public <T> Optional<T> selectOne(String sql, Class<T> viewClass, Object... params) {
         StopWatch watch = new StopWatch();
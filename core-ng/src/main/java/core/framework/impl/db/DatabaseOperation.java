@@ -18,15 +18,22 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * @author neo
  */
 public class DatabaseOperation {
     public final TransactionManager transactionManager;
+    public final StatementCacheStats statementCacheStats = new StatementCacheStats();
     final EnumDBMapper enumMapper = new EnumDBMapper();
+    final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();    // statement cache of each pooled connection, removed when connection is closed
     int queryTimeoutInSeconds;
+    int fetchSize = 500;    // rows per round trip for forEach, mysql only supports streaming row by row with Integer.MIN_VALUE
+    int statementCacheSize = 50;    // max cached statements per connection, 0 to disable
 
     public DatabaseOperation(Pool<Connection> pool) {
         transactionManager = new TransactionManager(pool);
@@ -36,27 +43,78 @@ public class DatabaseOperation {
     // make a lot of lambda and template pattern will make it harder to read and trace, also impact the mem usage and GC
     int update(String sql, Object[] params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        PreparedStatement statement = null;
+        try {
+            statement = statement(connection.resource, sql);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             return statement.executeUpdate();
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
+            evictStatement(connection.resource, sql, statement);
             throw new UncheckedSQLException(e);
         } finally {
+            releaseStatement(statement);
             transactionManager.releaseConnection(connection);
         }
     }
 
     int[] batchUpdate(String sql, List<Object[]> params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        PreparedStatement statement = null;
+        try {
+            statement = statement(connection.resource, sql);
             statement.setQueryTimeout(queryTimeoutInSeconds);
+            statement.clearBatch();     // cached statement may keep batch of previous failed call
             for (Object[] batchParams : params) {
                 setParams(statement, batchParams);
                 statement.addBatch();
             }
             return statement.executeBatch();
+        } catch (SQLException e) {
+            Connections.checkConnectionStatus(connection, e);
+            evictStatement(connection.resource, sql, statement);
+            throw new UncheckedSQLException(e);
+        } finally {
+            releaseStatement(statement);
+            transactionManager.releaseConnection(connection);
+        }
+    }
+
+    <T> int[] batchUpdate(String sql, List<T> entities, ParamBinder<T> binder) {
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        PreparedStatement statement = null;
+        try {
+            statement = statement(connection.resource, sql);
+            statement.setQueryTimeout(queryTimeoutInSeconds);
+            statement.clearBatch();     // cached statement may keep batch of previous failed call
+            for (T entity : entities) {
+                binder.bind(statement, entity, 0);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        } catch (SQLException e) {
+            Connections.checkConnectionStatus(connection, e);
+            evictStatement(connection.resource, sql, statement);
+            throw new UncheckedSQLException(e);
+        } finally {
+            releaseStatement(statement);
+            transactionManager.releaseConnection(connection);
+        }
+    }
+
+    // binds all entities into one multi-row statement, each entity takes paramsPerRow params,
+    // statement is not cached, as sql differs by row count and huge statements would evict small hot ones from statement cache
+    <T> int multiRowUpdate(String sql, List<T> entities, ParamBinder<T> binder, int paramsPerRow) {
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+            statement.setQueryTimeout(queryTimeoutInSeconds);
+            int offset = 0;
+            for (T entity : entities) {
+                binder.bind(statement, entity, offset);
+                offset += paramsPerRow;
+            }
+            return statement.executeUpdate();
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
             throw new UncheckedSQLException(e);
@@ -69,14 +127,18 @@ public class DatabaseOperation {
         validateSelectSQL(sql);
 
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        PreparedStatement statement = null;
+        try {
+            statement = statement(connection.resource, sql);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             return fetchOne(statement, mapper);
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
+            evictStatement(connection.resource, sql, statement);
             throw new UncheckedSQLException(e);
         } finally {
+            releaseStatement(statement);
             transactionManager.releaseConnection(connection);
         }
     }
@@ -85,10 +147,32 @@ public class DatabaseOperation {
         validateSelectSQL(sql);
 
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        PreparedStatement statement = null;
+        try {
+            statement = statement(connection.resource, sql);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             return fetch(statement, mapper);
+        } catch (SQLException e) {
+            Connections.checkConnectionStatus(connection, e);
+            evictStatement(connection.resource, sql, statement);
+            throw new UncheckedSQLException(e);
+        } finally {
+            releaseStatement(statement);
+            transactionManager.releaseConnection(connection);
+        }
+    }
+
+    // statement is not cached, as fetch size stays with statement, and streaming result set must be closed before connection is used again
+    <T> int forEach(String sql, RowMapper<T> mapper, Consumer<T> consumer, Object[] params) {
+        validateSelectSQL(sql);
+
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        try (PreparedStatement statement = connection.resource.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            statement.setQueryTimeout(queryTimeoutInSeconds);
+            setParams(statement, params);
+            return fetch(statement, mapper, consumer);
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
             throw new UncheckedSQLException(e);
@@ -99,19 +183,63 @@ public class DatabaseOperation {
 
     Optional<Long> insert(String sql, Object[] params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        PreparedStatement statement = null;
+        try {
+            statement = insertStatement(connection.resource, sql);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             statement.executeUpdate();
             return fetchGeneratedKey(statement);
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
+            evictStatement(connection.resource, sql, statement);
             throw new UncheckedSQLException(e);
         } finally {
+            releaseStatement(statement);
             transactionManager.releaseConnection(connection);
         }
     }
 
+    private PreparedStatement statement(Connection connection, String sql) throws SQLException {
+        if (statementCacheSize == 0) return connection.prepareStatement(sql);
+        return statementCache(connection).statement(sql);
+    }
+
+    private PreparedStatement insertStatement(Connection connection, String sql) throws SQLException {
+        if (statementCacheSize == 0) return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        return statementCache(connection).insertStatement(sql);
+    }
+
+    // connection is only used by one thread at a time, no need to lock
+    private StatementCache statementCache(Connection connection) {
+        StatementCache cache = statementCaches.get(connection);
+        if (cache == null) {
+            cache = new StatementCache(connection, statementCacheSize, statementCacheStats);
+            statementCaches.put(connection, cache);
+        }
+        return cache;
+    }
+
+    private void evictStatement(Connection connection, String sql, PreparedStatement statement) {
+        StatementCache cache = statementCaches.get(connection);
+        if (cache != null) cache.evict(sql, statement);
+    }
+
+    // cached statement is kept open, and closed when evicted or connection is closed
+    private void releaseStatement(PreparedStatement statement) {
+        if (statementCacheSize > 0 || statement == null) return;
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            throw new UncheckedSQLException(e);
+        }
+    }
+
+    void closeConnection(Connection connection) throws SQLException {
+        statementCaches.remove(connection);   // statements are closed by connection
+        connection.close();
+    }
+
     private void validateSelectSQL(String sql) {
         if (sql.contains("*"))
             throw Exceptions.error("sql must not contain wildcard(*), please only select columns needed, sql={}", sql);
@@ -142,6 +270,19 @@ public class DatabaseOperation {
         }
     }
 
+    private <T> int fetch(PreparedStatement statement, RowMapper<T> mapper, Consumer<T> consumer) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            ResultSetWrapper wrapper = new ResultSetWrapper(resultSet);
+            int total = 0;
+            while (resultSet.next()) {
+                T result = mapper.map(wrapper);
+                total++;
+                consumer.accept(result);
+            }
+            return total;
+        }
+    }
+
     // the LAST_INSERT_ID() function of mysql returns BIGINT, so here it uses Long
     // http://dev.mysql.com/doc/refman/5.7/en/information-functions.html
     private Optional<Long> fetchGeneratedKey(PreparedStatement statement) throws SQLException {
@@ -153,7 +294,7 @@ public class DatabaseOperation {
         return Optional.empty();
     }
 
-    private void setParams(PreparedStatement statement, Object[] params) throws SQLException {
+    void setParams(PreparedStatement statement, Object[] params) throws SQLException {
         int index = 1;
         if (params != null) {
             for (Object param : params) {
@@ -0,0 +1,8 @@
+package core.framework.impl.db;
+
+/**
+ * @author neo
+ */
+enum Dialect {
+    MYSQL, HSQLDB, ORACLE
+}
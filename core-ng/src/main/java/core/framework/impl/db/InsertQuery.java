@@ -17,7 +17,11 @@ import java.util.function.Function;
  */
 final class InsertQuery<T> {
     public final String sql;
+    final ParamBinder<T> paramBinder;    // for batch insert, params are not needed for logging
+    final int paramsPerRow;
     private final Function<T, Object[]> paramBuilder;
+    private final String columnsSQL;
+    private final String valuesSQL;
 
     InsertQuery(Class<T> entityClass) {
         List<Field> paramFields = Lists.newArrayList();
@@ -40,16 +44,21 @@ final class InsertQuery<T> {
             index++;
         }
 
-        builder.append(") VALUES (");
+        builder.append(") VALUES ");
+        columnsSQL = builder.toString();
+
+        StringBuilder values = new StringBuilder().append('(');
         for (int i = 0; i < paramFields.size(); i++) {
-            if (i > 0) builder.append(", ");
-            builder.append('?');
+            if (i > 0) values.append(", ");
+            values.append('?');
         }
-        builder.append(')');
+        valuesSQL = values.append(')').toString();
 
-        sql = builder.toString();
+        sql = columnsSQL + valuesSQL;
+        paramsPerRow = paramFields.size();
 
         paramBuilder = paramBuilder(entityClass, paramFields);
+        paramBinder = new ParamBinderBuilder<>(entityClass, paramFields).build();
     }
 
     private Function<T, Object[]> paramBuilder(Class<T> entityClass, List<Field> paramFields) {
@@ -72,6 +81,17 @@ final class InsertQuery<T> {
         return dynamicInstanceBuilder.build();
     }
 
+    // multi-row INSERT ... VALUES (...), (...), supported by mysql and hsqldb
+    String sql(int rows) {
+        if (rows == 1) return sql;
+        StringBuilder builder = new StringBuilder(columnsSQL.length() + (valuesSQL.length() + 2) * rows).append(columnsSQL);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(valuesSQL);
+        }
+        return builder.toString();
+    }
+
     Object[] params(T entity) {
         return paramBuilder.apply(entity);
     }
@@ -0,0 +1,15 @@
+package core.framework.impl.db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * sets entity fields to statement by typed setters, generated by ParamBinderBuilder, to avoid boxing into Object[] and type checking per param
+ *
+ * @author neo
+ */
+interface ParamBinder<T> {
+    void bind(PreparedStatement statement, T entity, int offset) throws SQLException;    // params start from offset + 1, to bind multiple entities into one multi-row statement
+
+    int estimateSize(T entity);     // rough size of params in bytes, to split batch into chunks
+}
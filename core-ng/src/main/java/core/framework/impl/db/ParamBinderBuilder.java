@@ -0,0 +1,118 @@
+package core.framework.impl.db;
+
+import core.framework.api.db.DBEnumValue;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Strings;
+import core.framework.impl.code.CodeBuilder;
+import core.framework.impl.code.DynamicInstanceBuilder;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * binds given fields in order as params starting from offset + 1, db values of enum are resolved at build time and looked up by ordinal
+ *
+ * @author neo
+ */
+final class ParamBinderBuilder<T> {
+    private final Class<T> entityClass;
+    private final List<Field> fields;
+
+    ParamBinderBuilder(Class<T> entityClass, List<Field> fields) {
+        this.entityClass = entityClass;
+        this.fields = fields;
+    }
+
+    ParamBinder<T> build() {
+        List<String> binderFields = Lists.newArrayList();
+        String entityClassName = entityClass.getCanonicalName();
+
+        CodeBuilder builder = new CodeBuilder().append("public void bind({} statement, Object value, int offset) {\n", PreparedStatement.class.getCanonicalName());
+        builder.indent(1).append("{} entity = ({}) value;\n", entityClassName, entityClassName);
+
+        int index = 1;
+        for (Field field : fields) {
+            String fieldName = field.getName();
+            Class<?> fieldClass = field.getType();
+            builder.indent(1).append("if (entity.{} == null) statement.setObject(offset + {}, null);\n", fieldName, index);
+            builder.indent(1).append("else ");
+            if (String.class.equals(fieldClass)) {
+                builder.append("statement.setString(offset + {}, entity.{});\n", index, fieldName);
+            } else if (Integer.class.equals(fieldClass)) {
+                builder.append("statement.setInt(offset + {}, entity.{}.intValue());\n", index, fieldName);
+            } else if (Long.class.equals(fieldClass)) {
+                builder.append("statement.setLong(offset + {}, entity.{}.longValue());\n", index, fieldName);
+            } else if (Double.class.equals(fieldClass)) {
+                builder.append("statement.setDouble(offset + {}, entity.{}.doubleValue());\n", index, fieldName);
+            } else if (Boolean.class.equals(fieldClass)) {
+                builder.append("statement.setBoolean(offset + {}, entity.{}.booleanValue());\n", index, fieldName);
+            } else if (BigDecimal.class.equals(fieldClass)) {
+                builder.append("statement.setBigDecimal(offset + {}, entity.{});\n", index, fieldName);
+            } else if (LocalDateTime.class.equals(fieldClass)) {
+                builder.append("statement.setTimestamp(offset + {}, {}.valueOf(entity.{}));\n", index, Timestamp.class.getCanonicalName(), fieldName);
+            } else if (ZonedDateTime.class.equals(fieldClass)) {
+                builder.append("statement.setTimestamp(offset + {}, new {}(entity.{}.toInstant().toEpochMilli()));\n", index, Timestamp.class.getCanonicalName(), fieldName);
+            } else if (LocalDate.class.equals(fieldClass)) {
+                builder.append("statement.setDate(offset + {}, {}.valueOf(entity.{}));\n", index, Date.class.getCanonicalName(), fieldName);
+            } else if (fieldClass.isEnum()) {
+                binderFields.add(enumDBValuesField(fieldName, fieldClass));
+                builder.append("statement.setString(offset + {}, {}DBValues[entity.{}.ordinal()]);\n", index, fieldName, fieldName);
+            } else {
+                throw new Error("unsupported field class, please contact arch team, class=" + fieldClass.getCanonicalName());
+            }
+            index++;
+        }
+        builder.append("}");
+
+        DynamicInstanceBuilder<ParamBinder<T>> instanceBuilder = new DynamicInstanceBuilder<>(ParamBinder.class, ParamBinder.class.getCanonicalName() + "$" + entityClass.getSimpleName());
+        binderFields.forEach(instanceBuilder::addField);
+        instanceBuilder.addMethod(builder.build());
+        instanceBuilder.addMethod(estimateSizeMethod());
+        return instanceBuilder.build();
+    }
+
+    // string params count as chars plus quotes, others as fixed width of text form, e.g. timestamp, it is rough to split batch by bytes, not exact packet size
+    private String estimateSizeMethod() {
+        String entityClassName = entityClass.getCanonicalName();
+        CodeBuilder builder = new CodeBuilder().append("public int estimateSize(Object value) {\n");
+        builder.indent(1).append("{} entity = ({}) value;\n", entityClassName, entityClassName);
+        builder.indent(1).append("int size = {};\n", fields.size() * 4);
+        for (Field field : fields) {
+            String fieldName = field.getName();
+            if (String.class.equals(field.getType())) {
+                builder.indent(1).append("if (entity.{} != null) size += entity.{}.length();\n", fieldName, fieldName);
+            } else {
+                builder.indent(1).append("if (entity.{} != null) size += 24;\n", fieldName);
+            }
+        }
+        builder.indent(1).append("return size;\n");
+        return builder.append("}").build();
+    }
+
+    private String enumDBValuesField(String fieldName, Class<?> enumClass) {
+        CodeBuilder builder = new CodeBuilder().append("private final String[] {}DBValues = new String[]{", fieldName);
+        Object[] constants = enumClass.getEnumConstants();
+        for (int i = 0; i < constants.length; i++) {
+            String name = ((Enum<?>) constants[i]).name();
+            String dbValue = dbValue(enumClass, name);
+            if (i > 0) builder.append(", ");
+            builder.append("\"{}\"", dbValue.replace("\\", "\\\\").replace("\"", "\\\""));
+        }
+        return builder.append("};").build();
+    }
+
+    private String dbValue(Class<?> enumClass, String name) {
+        try {
+            return enumClass.getField(name).getDeclaredAnnotation(DBEnumValue.class).value();
+        } catch (NoSuchFieldException e) {
+            throw new Error(Strings.format("enum constant not found, enumClass={}, name={}", enumClass.getCanonicalName(), name), e);
+        }
+    }
+}
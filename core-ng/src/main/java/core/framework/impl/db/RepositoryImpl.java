@@ -12,12 +12,15 @@ import org.slf4j.LoggerFactory;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * @author neo
  */
 public final class RepositoryImpl<T> implements Repository<T> {
+    private static final int MAX_PARAMS = 65535;    // mysql limits placeholders per prepared statement
+
     private final Logger logger = LoggerFactory.getLogger(RepositoryImpl.class);
 
     private final DatabaseImpl database;
@@ -25,6 +28,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
     private final SelectQuery selectQuery;
     private final InsertQuery<T> insertQuery;
     private final UpdateQuery<T> updateQuery;
+    private final UpsertQuery<T> upsertQuery;
     private final String deleteSQL;
     private final RowMapper<T> rowMapper;
 
@@ -34,6 +38,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         insertQuery = new InsertQuery<>(entityClass);
         selectQuery = new SelectQuery(entityClass);
         updateQuery = new UpdateQuery<>(entityClass);
+        upsertQuery = new UpsertQuery<>(entityClass);
         deleteSQL = DeleteQueryBuilder.build(entityClass);
         this.rowMapper = rowMapper;
     }
@@ -55,6 +60,22 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
     }
 
+    @Override
+    public void forEach(Query query, Consumer<T> consumer) {
+        StopWatch watch = new StopWatch();
+        String sql = selectQuery.sql(query.where, query.skip, query.limit);
+        Object[] params = selectQuery.params(query);
+        Integer total = null;
+        try {
+            total = database.operation.forEach(sql, rowMapper, consumer, params);
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("db", elapsedTime);
+            logger.debug("forEach, sql={}, params={}, total={}, elapsedTime={}", sql, params, total, elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
     @Override
     public Optional<T> selectOne(String where, Object... params) {
         StopWatch watch = new StopWatch();
@@ -133,20 +154,24 @@ public final class RepositoryImpl<T> implements Repository<T> {
 
     @Override
     public void batchInsert(List<T> entities) {
-        StopWatch watch = new StopWatch();
         entities.forEach(validator::validate);
-        String sql = insertQuery.sql;
-        List<Object[]> params = entities.stream()
-            .map(insertQuery::params)
-            .collect(Collectors.toList());
-        try {
-            database.operation.batchUpdate(sql, params);
-        } finally {
-            long elapsedTime = watch.elapsedTime();
-            ActionLogContext.track("db", elapsedTime);
-            logger.debug("batch insert, sql={}, size={}, elapsedTime={}", sql, entities.size(), elapsedTime);
-            checkSlowOperation(elapsedTime);
-        }
+        batch("batch insert", entities, insertQuery.paramBinder, insertQuery.paramsPerRow, insertQuery::sql, rewriteBatch());
+    }
+
+    @Override
+    public void batchUpdate(List<T> entities) {
+        String sql = updateQuery.batchSQL();
+        entities.forEach(validator::validate);
+        int updatedRows = batch("batch update", entities, updateQuery.batchParamBinder, 0, rows -> sql, false);
+        if (updatedRows >= 0 && updatedRows != entities.size())
+            logger.warn(Markers.errorCode("UNEXPECTED_UPDATE_RESULT"), "updated rows does not match entities, rows={}, entities={}", updatedRows, entities.size());
+    }
+
+    @Override
+    public void batchUpsert(List<T> entities) {
+        entities.forEach(validator::validate);
+        Dialect dialect = database.dialect;
+        batch("batch upsert", entities, upsertQuery.paramBinder, upsertQuery.paramsPerRow, rows -> upsertQuery.sql(dialect, rows), rewriteBatch());
     }
 
     @Override
@@ -176,6 +201,65 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
     }
 
+    private boolean rewriteBatch() {
+        return database.rewriteBatch && database.dialect != Dialect.ORACLE;     // oracle does not support multi-row VALUES, its driver batches natively
+    }
+
+    // split into chunks by max rows and estimated bytes, each chunk is one round trip and tracked in action log, returns total affected rows, or -1 if unknown
+    private int batch(String operation, List<T> entities, ParamBinder<T> binder, int paramsPerRow, IntFunction<String> sqlBuilder, boolean rewrite) {
+        int maxRows = rewrite ? Math.min(database.batchMaxRows, MAX_PARAMS / paramsPerRow) : database.batchMaxRows;
+        int size = entities.size();
+        int affectedRows = 0;
+        int from = 0;
+        while (from < size) {
+            int to = chunkEnd(entities, from, maxRows, binder);
+            int chunkRows = batchChunk(operation, entities.subList(from, to), binder, paramsPerRow, sqlBuilder, rewrite);
+            if (chunkRows < 0 || affectedRows < 0) {
+                affectedRows = -1;
+            } else {
+                affectedRows += chunkRows;
+            }
+            from = to;
+        }
+        return affectedRows;
+    }
+
+    private int chunkEnd(List<T> entities, int from, int maxRows, ParamBinder<T> binder) {
+        int size = entities.size();
+        int bytes = 0;
+        int to = from;
+        while (to < size && to - from < maxRows) {
+            bytes += binder.estimateSize(entities.get(to));
+            if (bytes > database.batchMaxBytes && to > from) break;     // chunk takes at least one entity
+            to++;
+        }
+        return to;
+    }
+
+    private int batchChunk(String operation, List<T> chunk, ParamBinder<T> binder, int paramsPerRow, IntFunction<String> sqlBuilder, boolean rewrite) {
+        StopWatch watch = new StopWatch();
+        String sql = sqlBuilder.apply(1);
+        try {
+            if (rewrite) return database.operation.multiRowUpdate(sqlBuilder.apply(chunk.size()), chunk, binder, paramsPerRow);
+            return affectedRows(database.operation.batchUpdate(sql, chunk, binder));
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("db", elapsedTime);
+            logger.debug("{}, sql={}, size={}, rewrite={}, elapsedTime={}", operation, sql, chunk.size(), rewrite, elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
+    // driver may return Statement.SUCCESS_NO_INFO (-2) per row, e.g. oracle, or mysql with rewriteBatchedStatements, then affected rows is unknown
+    static int affectedRows(int[] results) {
+        int affectedRows = 0;
+        for (int result : results) {
+            if (result < 0) return -1;
+            affectedRows += result;
+        }
+        return affectedRows;
+    }
+
     private void checkTooManyRowsReturned(int size) {
         if (size > database.tooManyRowsReturnedThreshold) {
             logger.warn(Markers.errorCode("TOO_MANY_ROWS_RETURNED"), "too many rows returned, returnedRows={}", size);
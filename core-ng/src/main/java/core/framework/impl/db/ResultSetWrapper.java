@@ -24,6 +24,8 @@ final class ResultSetWrapper {
 
     // JDBC ResultSet doesn't support to ignore non-existed column, this to build index
     private final Map<String, Integer> columnIndex;
+    private String[] columns;
+    private int[] positions;
 
     ResultSetWrapper(ResultSet resultSet) {
         this.resultSet = resultSet;
@@ -34,10 +36,6 @@ final class ResultSetWrapper {
         }
     }
 
-    private Integer index(String column) {
-        return columnIndex.get(ASCII.toLowerCase(column));
-    }
-
     // different db are using various of rules to return column name/label, some of reserved case, some does not
     // here we have to make name/column case insensitive for view mapping
     // http://hsqldb.org/doc/guide/databaseobjects-chapt.html#dbc_collations
@@ -52,14 +50,21 @@ final class ResultSetWrapper {
         return index;
     }
 
-    int columnCount() {
-        return columnIndex.size();
+    // generated row mapper reads by position, positions of its columns are resolved once per result set, 0 means column is not returned
+    int[] positions(String[] columns) {
+        if (this.columns == columns) return positions;
+        int[] positions = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Integer index = columnIndex.get(columns[i]);
+            if (index != null) positions[i] = index;
+        }
+        this.columns = columns;
+        this.positions = positions;
+        return positions;
     }
 
-    Integer getInt(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getInt(index);
+    int columnCount() {
+        return columnIndex.size();
     }
 
     Integer getInt(int index) throws SQLException {
@@ -68,92 +73,44 @@ final class ResultSetWrapper {
         return value;
     }
 
-    Boolean getBoolean(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getBoolean(index);
-    }
-
     Boolean getBoolean(int index) throws SQLException {
         boolean value = resultSet.getBoolean(index);
         if (resultSet.wasNull()) return null;
         return value;
     }
 
-    Long getLong(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getLong(index);
-    }
-
     Long getLong(int index) throws SQLException {
         long value = resultSet.getLong(index);
         if (resultSet.wasNull()) return null;
         return value;
     }
 
-    Double getDouble(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getDouble(index);
-    }
-
     Double getDouble(int index) throws SQLException {
         double value = resultSet.getDouble(index);
         if (resultSet.wasNull()) return null;
         return value;
     }
 
-    String getString(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getString(index);
-    }
-
     String getString(int index) throws SQLException {
         return resultSet.getString(index);
     }
 
-    BigDecimal getBigDecimal(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getBigDecimal(index);
-    }
-
     BigDecimal getBigDecimal(int index) throws SQLException {
         return resultSet.getBigDecimal(index);
     }
 
-    LocalDateTime getLocalDateTime(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getLocalDateTime(index);
-    }
-
     LocalDateTime getLocalDateTime(int index) throws SQLException {
         Timestamp timestamp = resultSet.getTimestamp(index);
         if (timestamp == null) return null;
         return LocalDateTime.ofInstant(timestamp.toInstant(), ZoneId.systemDefault());
     }
 
-    LocalDate getLocalDate(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getLocalDate(index);
-    }
-
     LocalDate getLocalDate(int index) throws SQLException {
         Date date = resultSet.getDate(index);
         if (date == null) return null;
         return date.toLocalDate();
     }
 
-    ZonedDateTime getZonedDateTime(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getZonedDateTime(index);
-    }
-
     ZonedDateTime getZonedDateTime(int index) throws SQLException {
         Timestamp timestamp = resultSet.getTimestamp(index);
         if (timestamp == null) return null;
@@ -1,6 +1,7 @@
 package core.framework.impl.db;
 
 import core.framework.api.db.Column;
+import core.framework.api.util.ASCII;
 import core.framework.api.util.Lists;
 import core.framework.api.util.Strings;
 import core.framework.impl.code.CodeBuilder;
@@ -27,50 +28,65 @@ final class RowMapperBuilder<T> {
     }
 
     RowMapper<T> build() {
-        List<String> enumMapperFields = Lists.newArrayList();
+        List<String> mapperFields = Lists.newArrayList();
 
         String entityClassName = entityClass.getCanonicalName();
 
         CodeBuilder builder = new CodeBuilder().append("public Object map({} resultSet) {\n", ResultSetWrapper.class.getCanonicalName());
+        builder.indent(1).append("int[] positions = resultSet.positions(columns);\n");
         builder.indent(1).append("{} entity = new {}();\n", entityClassName, entityClassName);
 
+        List<String> columns = Lists.newArrayList();
         for (Field field : Classes.instanceFields(entityClass)) {
             String fieldName = field.getName();
             Class<?> fieldClass = field.getType();
-            String column = field.getAnnotation(Column.class).name();
+            int index = columns.size();
+            columns.add(ASCII.toLowerCase(field.getAnnotation(Column.class).name()));
+            builder.indent(1).append("if (positions[{}] > 0) ", index);
             if (Integer.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getInt(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getInt(positions[{}]);\n", fieldName, index);
             } else if (String.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getString(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getString(positions[{}]);\n", fieldName, index);
             } else if (Boolean.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getBoolean(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getBoolean(positions[{}]);\n", fieldName, index);
             } else if (Long.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getLong(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getLong(positions[{}]);\n", fieldName, index);
             } else if (LocalDateTime.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getLocalDateTime(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getLocalDateTime(positions[{}]);\n", fieldName, index);
             } else if (LocalDate.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getLocalDate(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getLocalDate(positions[{}]);\n", fieldName, index);
             } else if (ZonedDateTime.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getZonedDateTime(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getZonedDateTime(positions[{}]);\n", fieldName, index);
             } else if (fieldClass.isEnum()) {
                 registerEnumClass(fieldClass);
-                enumMapperFields.add(Strings.format("private final {} {}Mappings = new {}({}.class);", DBEnumMapper.class.getCanonicalName(), fieldName, DBEnumMapper.class.getCanonicalName(), fieldClass.getCanonicalName()));
-                builder.indent(1).append("entity.{} = ({}){}Mappings.getEnum(resultSet.getString(\"{}\"));\n", fieldName, fieldClass.getCanonicalName(), fieldName, column);
+                mapperFields.add(Strings.format("private final {} {}Mappings = new {}({}.class);", DBEnumMapper.class.getCanonicalName(), fieldName, DBEnumMapper.class.getCanonicalName(), fieldClass.getCanonicalName()));
+                builder.append("entity.{} = ({}){}Mappings.getEnum(resultSet.getString(positions[{}]));\n", fieldName, fieldClass.getCanonicalName(), fieldName, index);
             } else if (Double.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getDouble(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getDouble(positions[{}]);\n", fieldName, index);
             } else if (BigDecimal.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getBigDecimal(\"{}\");\n", fieldName, column);
+                builder.append("entity.{} = resultSet.getBigDecimal(positions[{}]);\n", fieldName, index);
             }
         }
+        mapperFields.add(columnsField(columns));
         builder.indent(1).append("return entity;\n");
         builder.append("}");
 
         DynamicInstanceBuilder<RowMapper<T>> instanceBuilder = new DynamicInstanceBuilder<>(RowMapper.class, RowMapper.class.getCanonicalName() + "$" + entityClass.getSimpleName());
-        enumMapperFields.forEach(instanceBuilder::addField);
+        mapperFields.forEach(instanceBuilder::addField);
         instanceBuilder.addMethod(builder.build());
         return instanceBuilder.build();
     }
 
+    // lower case column names in field order, to be resolved into positions by ResultSetWrapper
+    private String columnsField(List<String> columns) {
+        CodeBuilder builder = new CodeBuilder().append("private final String[] columns = new String[]{");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) builder.append(", ");
+            builder.append("\"{}\"", columns.get(i));
+        }
+        return builder.append("};").build();
+    }
+
     private void registerEnumClass(Class<?> fieldClass) {
         @SuppressWarnings("unchecked")
         Class<? extends Enum<?>> enumClass = (Class<? extends Enum<?>>) fieldClass;
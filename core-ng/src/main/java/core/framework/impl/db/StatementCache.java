@@ -0,0 +1,91 @@
+package core.framework.impl.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * prepared statements of one connection, connection is only used by one thread at a time, so it does not need lock,
+ * least recently used statement is closed when exceeding max size, all statements are closed with connection,
+ * insert statement returns generated keys, so it is cached separately from other statements of same sql
+ *
+ * @author neo
+ */
+final class StatementCache {
+    private final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+    private final Map<String, PreparedStatement> statements;
+    private final Map<String, PreparedStatement> insertStatements;
+    private final Connection connection;
+    private final StatementCacheStats stats;
+
+    StatementCache(Connection connection, int maxSize, StatementCacheStats stats) {
+        this.connection = connection;
+        this.stats = stats;
+        statements = new LRUStatements(maxSize);
+        insertStatements = new LRUStatements(maxSize);
+    }
+
+    PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null) {
+            stats.hits.increment();
+            return statement;
+        }
+        stats.misses.increment();
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    PreparedStatement insertStatement(String sql) throws SQLException {
+        PreparedStatement statement = insertStatements.get(sql);
+        if (statement != null) {
+            stats.hits.increment();
+            return statement;
+        }
+        stats.misses.increment();
+        statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        insertStatements.put(sql, statement);
+        return statement;
+    }
+
+    // statement may be in unknown state after failure
+    void evict(String sql, PreparedStatement statement) {
+        if (statement == null) return;
+        statements.remove(sql, statement);
+        insertStatements.remove(sql, statement);
+        close(statement);
+    }
+
+    private void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.warn("failed to close statement, error={}", e.getMessage(), e);
+        }
+    }
+
+    private final class LRUStatements extends LinkedHashMap<String, PreparedStatement> {
+        private static final long serialVersionUID = 4618273618270142135L;
+        private final int maxSize;
+
+        LRUStatements(int maxSize) {
+            super(maxSize, 0.75F, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= maxSize) return false;
+            stats.evictions.increment();
+            close(eldest.getValue());
+            return true;
+        }
+    }
+}
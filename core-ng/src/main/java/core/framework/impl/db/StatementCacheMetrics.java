@@ -0,0 +1,41 @@
+package core.framework.impl.db;
+
+import core.framework.impl.log.stat.Metrics;
+
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public final class StatementCacheMetrics implements Metrics {
+    private final String name;
+    private final StatementCacheStats stats;
+    private long previousHits;
+    private long previousMisses;
+    private long previousEvictions;
+
+    public StatementCacheMetrics(String name, StatementCacheStats stats) {
+        this.name = name;
+        this.stats = stats;
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        long hits = this.stats.hits.sum();
+        long misses = this.stats.misses.sum();
+        long evictions = this.stats.evictions.sum();
+        long intervalHits = hits - previousHits;
+        long intervalMisses = misses - previousMisses;
+        stats.put(statName("hits"), (double) intervalHits);
+        stats.put(statName("misses"), (double) intervalMisses);
+        stats.put(statName("evictions"), (double) (evictions - previousEvictions));
+        if (intervalHits + intervalMisses > 0) stats.put(statName("hit_ratio"), intervalHits / (double) (intervalHits + intervalMisses));
+        previousHits = hits;
+        previousMisses = misses;
+        previousEvictions = evictions;
+    }
+
+    private String statName(String statName) {
+        return name + "_statement_cache_" + statName;
+    }
+}
@@ -0,0 +1,12 @@
+package core.framework.impl.db;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author neo
+ */
+public final class StatementCacheStats {
+    public final LongAdder hits = new LongAdder();
+    public final LongAdder misses = new LongAdder();
+    public final LongAdder evictions = new LongAdder();
+}
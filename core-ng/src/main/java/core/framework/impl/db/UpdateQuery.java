@@ -3,6 +3,7 @@ package core.framework.impl.db;
 import core.framework.api.db.Column;
 import core.framework.api.db.PrimaryKey;
 import core.framework.api.db.Table;
+import core.framework.api.util.Exceptions;
 import core.framework.api.util.Lists;
 import core.framework.impl.code.CodeBuilder;
 import core.framework.impl.code.DynamicInstanceBuilder;
@@ -16,9 +17,13 @@ import java.util.function.Function;
  * @author neo
  */
 final class UpdateQuery<T> {
+    final ParamBinder<T> batchParamBinder;
     private final Function<T, Query> queryBuilder;
+    private final Class<T> entityClass;
+    private final String batchSQL;      // batch update sets all columns including null, not like update() which only sets non-null fields, null if entity has only primary key columns
 
     UpdateQuery(Class<T> entityClass) {
+        this.entityClass = entityClass;
         List<Field> primaryKeyFields = Lists.newArrayList();
         List<Field> columnFields = Lists.newArrayList();
         for (Field field : Classes.instanceFields(entityClass)) {
@@ -30,6 +35,33 @@ final class UpdateQuery<T> {
         }
 
         queryBuilder = queryBuilder(entityClass, primaryKeyFields, columnFields);
+        batchSQL = columnFields.isEmpty() ? null : batchSQL(entityClass, primaryKeyFields, columnFields);
+
+        List<Field> batchParamFields = Lists.newArrayList();
+        batchParamFields.addAll(columnFields);
+        batchParamFields.addAll(primaryKeyFields);
+        batchParamBinder = new ParamBinderBuilder<>(entityClass, batchParamFields).build();
+    }
+
+    String batchSQL() {
+        if (batchSQL == null) throw Exceptions.error("entity has only primary key columns, nothing to batch update, entityClass={}", entityClass.getCanonicalName());
+        return batchSQL;
+    }
+
+    private String batchSQL(Class<T> entityClass, List<Field> primaryKeyFields, List<Field> columnFields) {
+        StringBuilder builder = new StringBuilder("UPDATE ").append(entityClass.getDeclaredAnnotation(Table.class).name()).append(" SET ");
+        int index = 0;
+        for (Field field : columnFields) {
+            if (index > 0) builder.append(", ");
+            builder.append(field.getDeclaredAnnotation(Column.class).name()).append(" = ?");
+            index++;
+        }
+        index = 0;
+        for (Field primaryKeyField : primaryKeyFields) {
+            builder.append(index == 0 ? " WHERE " : " AND ").append(primaryKeyField.getDeclaredAnnotation(Column.class).name()).append(" = ?");
+            index++;
+        }
+        return builder.toString();
     }
 
     private Function<T, Query> queryBuilder(Class<T> entityClass, List<Field> primaryKeyFields, List<Field> columnFields) {
@@ -0,0 +1,136 @@
+package core.framework.impl.db;
+
+import core.framework.api.db.Column;
+import core.framework.api.db.PrimaryKey;
+import core.framework.api.db.Table;
+import core.framework.api.util.Lists;
+import core.framework.impl.reflect.Classes;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * insert or update all columns by primary key, mysql uses INSERT ... ON DUPLICATE KEY UPDATE, hsqldb and oracle use MERGE
+ *
+ * @author neo
+ */
+final class UpsertQuery<T> {
+    final ParamBinder<T> paramBinder;
+    final int paramsPerRow;
+    private final String table;
+    private final List<String> columns = Lists.newArrayList();
+    private final List<String> primaryKeyColumns = Lists.newArrayList();
+    private final List<String> updateColumns = Lists.newArrayList();
+    private final boolean[] booleanParams;
+
+    UpsertQuery(Class<T> entityClass) {
+        table = entityClass.getDeclaredAnnotation(Table.class).name();
+        List<Field> fields = Classes.instanceFields(entityClass);
+        booleanParams = new boolean[fields.size()];
+        int index = 0;
+        for (Field field : fields) {
+            booleanParams[index++] = Boolean.class.equals(field.getType());
+            String column = field.getDeclaredAnnotation(Column.class).name();
+            columns.add(column);
+            if (field.isAnnotationPresent(PrimaryKey.class)) {
+                primaryKeyColumns.add(column);
+            } else {
+                updateColumns.add(column);
+            }
+        }
+        paramBinder = new ParamBinderBuilder<>(entityClass, fields).build();
+        paramsPerRow = fields.size();
+    }
+
+    String sql(Dialect dialect, int rows) {
+        if (dialect == Dialect.MYSQL) return mysqlSQL(rows);
+        if (dialect == Dialect.HSQLDB) return mergeSQL(hsqldbSource(rows));
+        if (rows > 1) throw new Error("multi-row upsert is not supported by oracle, rows=" + rows);
+        return mergeSQL(oracleSource());
+    }
+
+    private String mysqlSQL(int rows) {
+        StringBuilder builder = new StringBuilder("INSERT INTO ").append(table).append(" (");
+        appendColumns(builder, "", columns);
+        builder.append(") VALUES ");
+        appendValues(builder, rows, false);
+        builder.append(" ON DUPLICATE KEY UPDATE ");
+        if (updateColumns.isEmpty()) {
+            String column = primaryKeyColumns.get(0);
+            builder.append(column).append(" = ").append(column);    // entity with only primary key columns, keep existing row
+        } else {
+            int index = 0;
+            for (String column : updateColumns) {
+                if (index > 0) builder.append(", ");
+                builder.append(column).append(" = VALUES(").append(column).append(')');
+                index++;
+            }
+        }
+        return builder.toString();
+    }
+
+    private String hsqldbSource(int rows) {
+        StringBuilder builder = new StringBuilder("(VALUES ");
+        appendValues(builder, rows, true);     // hsqldb can not infer type of untyped boolean param in VALUES, and fails to match rows
+        builder.append(") s (");
+        appendColumns(builder, "", columns);
+        return builder.append(')').toString();
+    }
+
+    private String oracleSource() {
+        StringBuilder builder = new StringBuilder("(SELECT ");
+        int index = 0;
+        for (String column : columns) {
+            if (index > 0) builder.append(", ");
+            builder.append("? ").append(column);
+            index++;
+        }
+        return builder.append(" FROM dual) s").toString();
+    }
+
+    private String mergeSQL(String source) {
+        StringBuilder builder = new StringBuilder("MERGE INTO ").append(table).append(" t USING ").append(source).append(" ON (");
+        int index = 0;
+        for (String column : primaryKeyColumns) {
+            if (index > 0) builder.append(" AND ");
+            builder.append("t.").append(column).append(" = s.").append(column);
+            index++;
+        }
+        builder.append(')');
+        if (!updateColumns.isEmpty()) {
+            builder.append(" WHEN MATCHED THEN UPDATE SET ");
+            index = 0;
+            for (String column : updateColumns) {
+                if (index > 0) builder.append(", ");
+                builder.append("t.").append(column).append(" = s.").append(column);
+                index++;
+            }
+        }
+        builder.append(" WHEN NOT MATCHED THEN INSERT (");
+        appendColumns(builder, "", columns);
+        builder.append(") VALUES (");
+        appendColumns(builder, "s.", columns);
+        return builder.append(')').toString();
+    }
+
+    private void appendColumns(StringBuilder builder, String prefix, List<String> names) {
+        int index = 0;
+        for (String column : names) {
+            if (index > 0) builder.append(", ");
+            builder.append(prefix).append(column);
+            index++;
+        }
+    }
+
+    private void appendValues(StringBuilder builder, int rows, boolean castBoolean) {
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) builder.append(", ");
+            builder.append('(');
+            for (int i = 0; i < paramsPerRow; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(castBoolean && booleanParams[i] ? "CAST(? AS BOOLEAN)" : "?");
+            }
+            builder.append(')');
+        }
+    }
+}
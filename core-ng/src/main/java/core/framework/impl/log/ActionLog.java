@@ -139,6 +139,11 @@ public final class ActionLog {
         log("[track] {}={}", action, elapsedTime);
     }
 
+    public int trackCount(String action) {
+        PerformanceStat stat = performanceStats.get(action);
+        return stat == null ? 0 : stat.count;
+    }
+
     public String refId() {
         if (refId == null) return id;
         return refId;
@@ -0,0 +1,49 @@
+package core.framework.impl.log.stat;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * fixed buckets, counts[i] is number of values <= bounds[i] and > bounds[i - 1], last count is for values greater than all bounds
+ *
+ * @author neo
+ */
+public final class Histogram {
+    public final long[] bounds;
+    private final AtomicLongArray counts;
+
+    public Histogram(long... bounds) {
+        this.bounds = bounds;
+        counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    public void record(long value) {
+        int index = 0;
+        while (index < bounds.length && value > bounds[index]) {
+            index++;
+        }
+        counts.incrementAndGet(index);
+    }
+
+    public long[] counts() {
+        long[] results = new long[counts.length()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = counts.get(i);
+        }
+        return results;
+    }
+
+    // upper bound of bucket where given percentile falls into, counts is snapshot or delta of counts(), return -1 if value is greater than all bounds
+    public long percentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long accumulated = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            accumulated += counts[i];
+            if (accumulated >= rank) return bounds[i];
+        }
+        return -1;
+    }
+}
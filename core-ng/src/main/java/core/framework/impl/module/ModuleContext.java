@@ -13,6 +13,8 @@ import core.framework.impl.inject.ShutdownHook;
 import core.framework.impl.log.DefaultLoggerFactory;
 import core.framework.impl.log.LogManager;
 import core.framework.impl.log.stat.Metrics;
+import core.framework.impl.resource.Pool;
+import core.framework.impl.resource.PoolMetrics;
 import core.framework.impl.web.ControllerActionBuilder;
 import core.framework.impl.web.ControllerClassValidator;
 import core.framework.impl.web.ControllerHolder;
@@ -20,6 +22,7 @@ import core.framework.impl.web.ControllerInspector;
 import core.framework.impl.web.HTTPServer;
 import core.framework.impl.web.management.HealthCheckController;
 import core.framework.impl.web.management.MemoryUsageController;
+import core.framework.impl.web.management.PoolController;
 import core.framework.impl.web.management.PropertyController;
 import core.framework.impl.web.management.ThreadInfoController;
 import core.framework.impl.web.route.PathPatternValidator;
@@ -40,6 +43,7 @@ public final class ModuleContext {
     public final LogManager logManager;
     public final MockFactory mockFactory;
     public final List<Metrics> metrics = Lists.newArrayList();
+    public final List<Pool<?>> pools = Lists.newArrayList();    // db/redis/rabbitmq pools, for pool metrics and /_sys/pool
     public final ConfigState config = new ConfigState();
     private BackgroundTaskExecutor backgroundTask;
 
@@ -57,6 +61,7 @@ public final class ModuleContext {
         beanFactory.bind(WebContext.class, null, httpServer.handler.webContext);
         beanFactory.bind(WebDirectory.class, null, httpServer.siteManager.webDirectory);
         if (!isTest()) {
+            startupHook.add(() -> pools.forEach(Pool::warmUp));     // fill pools before accepting requests
             startupHook.add(httpServer::start);
             shutdownHook.add(httpServer::stop);
         }
@@ -78,6 +83,8 @@ public final class ModuleContext {
             route(HTTPMethod.GET, "/_sys/thread-dump", threadInfoController::threadDump, true);
             PropertyController propertyController = new PropertyController(properties);
             route(HTTPMethod.GET, "/_sys/property", propertyController, true);
+            route(HTTPMethod.GET, "/_sys/pool", new PoolController(pools), true);
+            metrics.add(new PoolMetrics(pools));
         }
     }
 
@@ -53,6 +53,7 @@ public final class RabbitMQImpl implements RabbitMQ {
         pool.name("rabbitmq");
         pool.size(1, 50);
         pool.maxIdleTime(Duration.ofMinutes(30));
+        pool.validator(Channel::isOpen);
         timeout(Duration.ofSeconds(5));
     }
 
@@ -0,0 +1,164 @@
+package core.framework.impl.redis;
+
+import core.framework.api.log.ActionLogContext;
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.util.Lists;
+import core.framework.api.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Protocol;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * @author neo
+ */
+final class MultiplexedRedisBatch implements RedisBatch {
+    private final Logger logger = LoggerFactory.getLogger(MultiplexedRedisBatch.class);
+    private final MultiplexedRedisImpl redis;
+    private List<BatchCommand> commands = Lists.newArrayList();
+
+    MultiplexedRedisBatch(MultiplexedRedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return read(redis.command(Protocol.Command.GET.raw, key), reply -> redis.decode((byte[]) reply));
+    }
+
+    @Override
+    public void set(String key, String value) {
+        write(redis.command(Protocol.Command.SET.raw, key, value));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        write(new byte[][]{Protocol.Command.SET.raw, redis.encode(key), redis.encode(value), RedisImpl.EX, redis.seconds(expiration)});
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsent(String key, String value, Duration expiration) {
+        return read(new byte[][]{Protocol.Command.SET.raw, redis.encode(key), redis.encode(value), RedisImpl.NX, RedisImpl.EX, redis.seconds(expiration)}, "OK"::equals);
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        write(new byte[][]{Protocol.Command.EXPIRE.raw, redis.encode(key), redis.seconds(duration)});
+    }
+
+    @Override
+    public void del(String key) {
+        write(redis.command(Protocol.Command.DEL.raw, key));
+    }
+
+    @Override
+    public CompletableFuture<String> hget(String key, String field) {
+        return read(redis.command(Protocol.Command.HGET.raw, key, field), reply -> redis.decode((byte[]) reply));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAll(String key) {
+        return read(redis.command(Protocol.Command.HGETALL.raw, key), redis::decodeHash);
+    }
+
+    @Override
+    public void hset(String key, String field, String value) {
+        write(redis.command(Protocol.Command.HSET.raw, key, field, value));
+    }
+
+    @Override
+    public void hdel(String key, String... fields) {
+        write(redis.command(Protocol.Command.HDEL.raw, key, fields));
+    }
+
+    @Override
+    public void sadd(String key, String value) {
+        write(redis.command(Protocol.Command.SADD.raw, key, value));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> smembers(String key) {
+        return read(redis.command(Protocol.Command.SMEMBERS.raw, key), redis::decodeSet);
+    }
+
+    @Override
+    public void srem(String key, String... values) {
+        write(redis.command(Protocol.Command.SREM.raw, key, values));
+    }
+
+    @Override
+    public void execute() {
+        List<BatchCommand> sending = commands;
+        if (sending.isEmpty()) return;
+        commands = Lists.newArrayList();
+
+        StopWatch watch = new StopWatch();
+        RuntimeException error = null;
+        try {
+            List<CompletableFuture<Object>> replies = send(sending);
+            for (int i = 0; i < sending.size(); i++) {
+                RuntimeException commandError = sending.get(i).complete(replies.get(i));
+                if (commandError != null && sending.get(i).write && error == null) error = commandError;
+            }
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("batch, commands={}, elapsedTime={}", sending.size(), elapsedTime);
+            redis.checkSlowOperation(elapsedTime);
+        }
+        if (error != null) throw error;
+    }
+
+    private List<CompletableFuture<Object>> send(List<BatchCommand> sending) {
+        List<byte[][]> redisCommands = Lists.newArrayList();
+        for (BatchCommand command : sending) {
+            redisCommands.add(command.command);
+        }
+        try {
+            return redis.connection().execute(redisCommands);
+        } catch (RuntimeException e) {
+            sending.forEach(command -> command.future.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> read(byte[][] command, Function<Object, T> decoder) {
+        BatchCommand batchCommand = new BatchCommand(command, decoder, false);
+        commands.add(batchCommand);
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T> future = (CompletableFuture<T>) batchCommand.future;
+        return future;
+    }
+
+    private void write(byte[][] command) {
+        commands.add(new BatchCommand(command, reply -> reply, true));
+    }
+    private final class BatchCommand {
+        final byte[][] command;
+        final Function<Object, ?> decoder;
+        final boolean write;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        BatchCommand(byte[][] command, Function<Object, ?> decoder, boolean write) {
+            this.command = command;
+            this.decoder = decoder;
+            this.write = write;
+        }
+
+        RuntimeException complete(CompletableFuture<Object> reply) {
+            try {
+                future.complete(decoder.apply(redis.await(reply)));
+                return null;
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                return e;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package core.framework.impl.redis;
+
+import core.framework.api.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * one socket shared by many threads, callers write commands in turn and read thread matches replies to pending futures in order,
+ * redis replies in same order of commands on one connection, so no request id is needed,
+ * futures are completed on completion executor, so dependent actions of caller never block read thread
+ *
+ * @author neo
+ */
+final class MultiplexedRedisConnection {
+    private final Logger logger = LoggerFactory.getLogger(MultiplexedRedisConnection.class);
+    private final SocketChannel channel;
+    private final Queue<PendingReply> pendingReplies = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();     // guards write order, futures must be queued in same order as commands are written
+    private final String name;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final long timeoutInNanos;
+    private final Executor completionExecutor;
+
+    MultiplexedRedisConnection(String name, String host, int port, Duration timeout, Executor completionExecutor) {
+        this.name = name;
+        this.completionExecutor = completionExecutor;
+        timeoutInNanos = timeout.toNanos();
+        StopWatch watch = new StopWatch();
+        try {
+            channel = SocketChannel.open();
+            channel.socket().setTcpNoDelay(true);
+            channel.socket().setKeepAlive(true);
+            channel.socket().connect(new InetSocketAddress(host, port), (int) timeout.toMillis());
+        } catch (IOException e) {
+            throw new RedisException("failed to connect to redis, host=" + host + ", error=" + e.getMessage(), e);
+        } finally {
+            logger.info("connect to redis, name={}, host={}, elapsedTime={}", name, host, watch.elapsedTime());
+        }
+        Thread readThread = new Thread(this::read, name + "-read");
+        readThread.setDaemon(true);
+        readThread.start();
+    }
+
+    CompletableFuture<Object> execute(byte[]... command) {
+        return execute(Collections.singletonList(command)).get(0);
+    }
+
+    List<CompletableFuture<Object>> execute(List<byte[][]> commands) {
+        ByteBuffer buffer = RedisProtocol.encode(commands);
+        List<CompletableFuture<Object>> futures = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            futures.add(new CompletableFuture<>());
+        }
+        lock.lock();
+        try {
+            if (closed.get()) throw new RedisException("redis connection is closed, name=" + name);
+            long now = System.nanoTime();
+            for (CompletableFuture<Object> future : futures) {
+                pendingReplies.add(new PendingReply(future, now));
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            close(e);
+        } finally {
+            lock.unlock();
+        }
+        return futures;
+    }
+
+    boolean closed() {
+        return closed.get();
+    }
+
+    void close() {
+        close(null);
+    }
+
+    void close(Throwable cause) {
+        if (!closed.compareAndSet(false, true)) return;
+        if (cause != null) logger.warn("redis connection failed, name={}, error={}", name, cause.getMessage(), cause);
+        try {
+            channel.close();    // also interrupts blocking read and write
+        } catch (IOException e) {
+            logger.warn("failed to close redis connection, name={}", name, e);
+        }
+        lock.lock();    // writer checks closed within lock, so no more futures can be queued after draining
+        try {
+            RedisException error = new RedisException("redis connection is closed, name=" + name, cause);
+            while (true) {
+                PendingReply pending = pendingReplies.poll();
+                if (pending == null) break;
+                pending.future.completeExceptionally(error);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // blocking read can not time out, so reply is considered lost if oldest pending command waits longer than timeout, then connection is closed to fail all pending futures and will be recreated on next call
+    void checkTimeout() {
+        PendingReply oldest = pendingReplies.peek();
+        if (oldest != null && System.nanoTime() - oldest.sentTime > timeoutInNanos) {
+            close(new RedisException("no redis reply within timeout, name=" + name + ", timeout=" + Duration.ofNanos(timeoutInNanos)));
+        }
+    }
+
+    private void read() {
+        RedisProtocol.Reader reader = new RedisProtocol.Reader(channel);
+        try {
+            while (!closed.get()) {
+                Object reply = reader.read();
+                PendingReply pending = pendingReplies.poll();
+                if (pending == null) throw new RedisException("received unexpected redis reply, name=" + name);
+                completionExecutor.execute(() -> complete(pending.future, reply));
+            }
+        } catch (Throwable e) {
+            close(closed.get() ? null : e);
+        }
+    }
+
+    private void complete(CompletableFuture<Object> future, Object reply) {
+        if (reply instanceof RedisException) future.completeExceptionally((RedisException) reply);
+        else future.complete(reply);
+    }
+
+    private static final class PendingReply {
+        final CompletableFuture<Object> future;
+        final long sentTime;
+
+        PendingReply(CompletableFuture<Object> future, long sentTime) {
+            this.future = future;
+            this.sentTime = sentTime;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package core.framework.impl.redis;
+
+import core.framework.api.redis.RedisHash;
+import redis.clients.jedis.Protocol;
+
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+final class MultiplexedRedisHash implements RedisHash {
+    private final MultiplexedRedisImpl redis;
+
+    MultiplexedRedisHash(MultiplexedRedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public String get(String key, String field) {
+        return redis.call("hget", key, () -> redis.hgetAsync(key, field));
+    }
+
+    @Override
+    public Map<String, String> getAll(String key) {
+        return redis.call("hgetAll", key, () -> redis.hgetAllAsync(key));
+    }
+
+    @Override
+    public void set(String key, String field, String value) {
+        redis.call("hset", key, () -> redis.execute(redis.command(Protocol.Command.HSET.raw, key, field, value)));
+    }
+
+    @Override
+    public void multiSet(String key, Map<String, String> values) {
+        String[] arguments = new String[values.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            arguments[i] = entry.getKey();
+            arguments[i + 1] = entry.getValue();
+            i = i + 2;
+        }
+        redis.call("hmset", key, () -> redis.execute(redis.command(Protocol.Command.HMSET.raw, key, arguments)));
+    }
+
+    @Override
+    public void del(String key, String... fields) {
+        redis.call("hdel", key, () -> redis.execute(redis.command(Protocol.Command.HDEL.raw, key, fields)));
+    }
+}
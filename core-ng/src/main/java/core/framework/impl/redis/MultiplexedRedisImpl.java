@@ -0,0 +1,418 @@
+package core.framework.impl.redis;
+
+import core.framework.api.log.ActionLogContext;
+import core.framework.api.log.Markers;
+import core.framework.api.redis.AsyncRedis;
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.redis.RedisHash;
+import core.framework.api.redis.RedisScript;
+import core.framework.api.redis.RedisSet;
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Maps;
+import core.framework.api.util.StopWatch;
+import core.framework.api.util.Strings;
+import core.framework.impl.async.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Protocol;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * alternative to pooled RedisImpl, commands from all threads are pipelined over few connections,
+ * caller thread does not hold connection during round trip, so concurrency is not bounded by pool size,
+ * commands are sent over connections in round robin, so async commands without waiting for previous reply are not ordered
+ *
+ * @author neo
+ */
+public final class MultiplexedRedisImpl implements AsyncRedis {
+    private final Logger logger = LoggerFactory.getLogger(MultiplexedRedisImpl.class);
+    private final AtomicReferenceArray<MultiplexedRedisConnection> connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final RedisSet redisSet = new MultiplexedRedisSet(this);
+    private final RedisHash redisHash = new MultiplexedRedisHash(this);
+    private final ExecutorService completionExecutor = ThreadPools.cachedThreadPool(Runtime.getRuntime().availableProcessors() * 2, "redis-completion-");
+    private String host;
+    private int port = Protocol.DEFAULT_PORT;
+    private long slowOperationThresholdInNanos = Duration.ofMillis(500).toNanos();
+    private Duration timeout = Duration.ofSeconds(5);
+    private ScheduledExecutorService healthCheckScheduler;
+    private boolean closed;     // guarded by connections
+
+    public MultiplexedRedisImpl(int connections) {
+        this.connections = new AtomicReferenceArray<>(connections);
+    }
+
+    public void host(String host) {
+        this.host = host;
+    }
+
+    void port(int port) {
+        this.port = port;
+    }
+
+    public void timeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public void slowOperationThreshold(Duration slowOperationThreshold) {
+        slowOperationThresholdInNanos = slowOperationThreshold.toNanos();
+    }
+
+    public void close() {
+        logger.info("close multiplexed redis client, host={}", host);
+        synchronized (connections) {
+            closed = true;  // not to reconnect lazily after closed
+            for (int i = 0; i < connections.length(); i++) {
+                MultiplexedRedisConnection connection = connections.getAndSet(i, null);
+                if (connection != null) connection.close();
+            }
+            if (healthCheckScheduler != null) healthCheckScheduler.shutdown();
+            completionExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        return call("get", key, () -> getAsync(key));
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) {
+        return execute(Protocol.Command.GET.raw, encode(key)).thenApply(reply -> decode((byte[]) reply));
+    }
+
+    @Override
+    public void set(String key, String value) {
+        call("set", key, () -> setAsync(key, value));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        call("set", key, () -> setAsync(key, value, expiration));
+    }
+
+    @Override
+    public RedisSet set() {
+        return redisSet;
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value) {
+        return execute(Protocol.Command.SET.raw, encode(key), encode(value)).thenApply(reply -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value, Duration expiration) {
+        return execute(Protocol.Command.SET.raw, encode(key), encode(value), RedisImpl.EX, seconds(expiration)).thenApply(reply -> null);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration expiration) {
+        return call("setIfAbsent", key, () -> setIfAbsentAsync(key, value, expiration));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsentAsync(String key, String value, Duration expiration) {
+        return execute(Protocol.Command.SET.raw, encode(key), encode(value), RedisImpl.NX, RedisImpl.EX, seconds(expiration)).thenApply("OK"::equals);
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        call("expire", key, () -> expireAsync(key, duration));
+    }
+
+    @Override
+    public CompletableFuture<Void> expireAsync(String key, Duration duration) {
+        return execute(Protocol.Command.EXPIRE.raw, encode(key), seconds(duration)).thenApply(reply -> null);
+    }
+
+    @Override
+    public void del(String... keys) {
+        call("del", keys, () -> delAsync(keys));
+    }
+
+    @Override
+    public CompletableFuture<Void> delAsync(String... keys) {
+        byte[][] command = new byte[keys.length + 1][];
+        command[0] = Protocol.Command.DEL.raw;
+        for (int i = 0; i < keys.length; i++) {
+            command[i + 1] = encode(keys[i]);
+        }
+        return execute(command).thenApply(reply -> null);
+    }
+
+    // SCAN of next page is sent before DEL of current page, so both are in flight together
+    @Override
+    public long delByPattern(String pattern) {
+        StopWatch watch = new StopWatch();
+        long deleted = 0;
+        int pages = 0;
+        try {
+            CompletableFuture<Object> scan = execute(scanCommand(encode("0"), pattern));
+            while (scan != null) {
+                List<?> result = (List<?>) await(scan);
+                byte[] cursor = (byte[]) result.get(0);
+                List<?> keys = (List<?>) result.get(1);
+                scan = "0".equals(decode(cursor)) ? null : execute(scanCommand(cursor, pattern));
+                if (!keys.isEmpty()) {     // DEL without key is error reply
+                    byte[][] command = new byte[keys.size() + 1][];
+                    command[0] = Protocol.Command.DEL.raw;
+                    for (int i = 0; i < keys.size(); i++) {
+                        command[i + 1] = (byte[]) keys.get(i);
+                    }
+                    deleted += (Long) await(execute(command));
+                }
+                pages++;
+                if (pages % RedisImpl.DEL_BY_PATTERN_LOG_PAGES == 0) logger.info("delete keys by pattern, pattern={}, pages={}, deleted={}", pattern, pages, deleted);
+            }
+            return deleted;
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("delByPattern, pattern={}, deleted={}, elapsedTime={}", pattern, deleted, elapsedTime);
+        }
+    }
+
+    private byte[][] scanCommand(byte[] cursor, String pattern) {
+        return new byte[][]{Protocol.Command.SCAN.raw, cursor, Protocol.Keyword.MATCH.raw, encode(pattern), Protocol.Keyword.COUNT.raw, encode("500")};
+    }
+
+    @Override
+    public Map<String, String> multiGet(String... keys) {
+        return call("mget", keys, () -> multiGetAsync(keys));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> multiGetAsync(String... keys) {
+        byte[][] command = new byte[keys.length + 1][];
+        command[0] = Protocol.Command.MGET.raw;
+        for (int i = 0; i < keys.length; i++) {
+            command[i + 1] = encode(keys[i]);
+        }
+        return execute(command).thenApply(reply -> {
+            List<?> redisValues = (List<?>) reply;
+            Map<String, String> values = Maps.newHashMapWithExpectedSize(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                byte[] redisValue = (byte[]) redisValues.get(i);
+                if (redisValue != null) values.put(keys[i], decode(redisValue));
+            }
+            return values;
+        });
+    }
+
+    @Override
+    public void multiSet(Map<String, String> values) {
+        call("mset", values, () -> multiSetAsync(values));
+    }
+
+    @Override
+    public CompletableFuture<Void> multiSetAsync(Map<String, String> values) {
+        byte[][] command = new byte[values.size() * 2 + 1][];
+        command[0] = Protocol.Command.MSET.raw;
+        int i = 1;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            command[i] = encode(entry.getKey());
+            command[i + 1] = encode(entry.getValue());
+            i = i + 2;
+        }
+        return execute(command).thenApply(reply -> null);
+    }
+
+    @Override
+    public CompletableFuture<String> hgetAsync(String key, String field) {
+        return execute(Protocol.Command.HGET.raw, encode(key), encode(field)).thenApply(reply -> decode((byte[]) reply));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAllAsync(String key) {
+        return execute(Protocol.Command.HGETALL.raw, encode(key)).thenApply(this::decodeHash);
+    }
+
+    @Override
+    public <T> T eval(RedisScript<T> script, List<String> keys, Object... args) {
+        return call("eval", keys, () -> evalAsync(script, keys, args));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> evalAsync(RedisScript<T> script, List<String> keys, Object... args) {
+        byte[][] params = RedisScripts.params(keys, args);
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        execute(evalCommand(Protocol.Command.EVALSHA.raw, encode(script.sha1), keys.size(), params)).whenCompleteAsync((reply, error) -> {     // fallback writes to connection, must not run on read thread
+            if (error == null) {
+                result.complete(reply);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof RedisException && cause.getMessage().startsWith(RedisScripts.NOSCRIPT)) {     // script cache is empty after redis restarted or failed over, EVAL loads script
+                execute(evalCommand(Protocol.Command.EVAL.raw, encode(script.script), keys.size(), params)).whenComplete((evalReply, evalError) -> {
+                    if (evalError == null) result.complete(evalReply);
+                    else result.completeExceptionally(evalError);
+                });
+            } else {
+                result.completeExceptionally(cause);
+            }
+        }, completionExecutor);
+        return result.thenApply(reply -> RedisScripts.result(script, reply));
+    }
+
+    private byte[][] evalCommand(byte[] command, byte[] script, int keyCount, byte[][] params) {
+        byte[][] values = new byte[params.length + 3][];
+        values[0] = command;
+        values[1] = script;
+        values[2] = encode(String.valueOf(keyCount));
+        System.arraycopy(params, 0, values, 3, params.length);
+        return values;
+    }
+
+    @Override
+    public RedisHash hash() {
+        return redisHash;
+    }
+
+    @Override
+    public void forEach(String pattern, Consumer<String> consumer) {
+        StopWatch watch = new StopWatch();
+        int count = 0;
+        try {
+            byte[] cursor = encode("0");
+            do {
+                List<?> result = (List<?>) await(execute(scanCommand(cursor, pattern)));
+                cursor = (byte[]) result.get(0);
+                for (Object key : (List<?>) result.get(1)) {
+                    count++;
+                    consumer.accept(decode((byte[]) key));
+                }
+            } while (!"0".equals(decode(cursor)));
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("forEach, pattern={}, count={}, elapsedTime={}", pattern, count, elapsedTime);
+        }
+    }
+
+    @Override
+    public RedisBatch batch() {
+        return new MultiplexedRedisBatch(this);
+    }
+
+    CompletableFuture<Object> execute(byte[]... command) {
+        return connection().execute(command);
+    }
+
+    MultiplexedRedisConnection connection() {
+        int index = Math.floorMod(nextConnection.getAndIncrement(), connections.length());
+        MultiplexedRedisConnection connection = connections.get(index);
+        if (connection != null && !connection.closed()) return connection;
+        synchronized (connections) {    // connect lazily, and reconnect if connection failed
+            connection = connections.get(index);
+            if (connection == null || connection.closed()) {
+                if (closed) throw new RedisException("redis client is closed, host=" + host);
+                if (host == null) throw new Error("redis.host must not be null");
+                if (healthCheckScheduler == null) {     // detect lost reply even if no caller awaits, e.g. async futures joined without timeout
+                    healthCheckScheduler = ThreadPools.singleThreadScheduler("redis-health-check-");
+                    healthCheckScheduler.scheduleWithFixedDelay(this::checkTimeout, 1, 1, TimeUnit.SECONDS);
+                }
+                connection = new MultiplexedRedisConnection("redis-" + index, host, port, timeout, completionExecutor);
+                connections.set(index, connection);
+            }
+            return connection;
+        }
+    }
+
+    <T> T call(String command, Object key, Supplier<CompletableFuture<T>> async) {
+        StopWatch watch = new StopWatch();
+        try {
+            return await(async.get());
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("{}, key={}, elapsedTime={}", command, key, elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
+    <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RedisException(cause.getMessage(), e);
+        } catch (TimeoutException e) {
+            checkTimeout();     // oldest pending command on same connection was sent before this one, so the connection is closed and recreated on next call
+            throw new RedisException("timeout to wait for redis reply, timeout=" + timeout, e);
+        } catch (InterruptedException e) {
+            throw new Error("interrupted during waiting for redis reply", e);
+        }
+    }
+
+    void checkTimeout() {
+        for (int i = 0; i < connections.length(); i++) {
+            MultiplexedRedisConnection connection = connections.get(i);
+            if (connection != null) connection.checkTimeout();
+        }
+    }
+
+    Map<String, String> decodeHash(Object reply) {
+        List<?> redisValues = (List<?>) reply;
+        Map<String, String> values = Maps.newHashMapWithExpectedSize(redisValues.size() / 2);
+        for (int i = 0; i < redisValues.size(); i += 2) {
+            values.put(decode((byte[]) redisValues.get(i)), decode((byte[]) redisValues.get(i + 1)));
+        }
+        return values;
+    }
+
+    Set<String> decodeSet(Object reply) {
+        List<?> redisMembers = (List<?>) reply;
+        Set<String> members = new HashSet<>(redisMembers.size());
+        for (Object redisMember : redisMembers) {
+            members.add(decode((byte[]) redisMember));
+        }
+        return members;
+    }
+
+    byte[][] command(byte[] command, String key, String... arguments) {
+        byte[][] values = new byte[arguments.length + 2][];
+        values[0] = command;
+        values[1] = encode(key);
+        for (int i = 0; i < arguments.length; i++) {
+            values[i + 2] = encode(arguments[i]);
+        }
+        return values;
+    }
+
+    byte[] seconds(Duration duration) {
+        return encode(String.valueOf(duration.getSeconds()));
+    }
+
+    byte[] encode(String value) {   // redis does not accept null
+        return Strings.bytes(value);
+    }
+
+    String decode(byte[] value) {
+        if (value == null) return null;
+        return new String(value, Charsets.UTF_8);
+    }
+
+    void checkSlowOperation(long elapsedTime) {
+        if (elapsedTime > slowOperationThresholdInNanos) {
+            logger.warn(Markers.errorCode("SLOW_REDIS"), "slow redis operation, elapsedTime={}", elapsedTime);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package core.framework.impl.redis;
+
+import core.framework.api.redis.RedisSet;
+import redis.clients.jedis.Protocol;
+
+import java.util.Set;
+
+/**
+ * @author neo
+ */
+final class MultiplexedRedisSet implements RedisSet {
+    private final MultiplexedRedisImpl redis;
+
+    MultiplexedRedisSet(MultiplexedRedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public boolean add(String key, String value) {
+        return redis.call("sadd", key, () -> redis.execute(redis.command(Protocol.Command.SADD.raw, key, value)).thenApply(reply -> (Long) reply == 1));
+    }
+
+    @Override
+    public Set<String> members(String key) {
+        return redis.call("smembers", key, () -> redis.execute(redis.command(Protocol.Command.SMEMBERS.raw, key)).thenApply(redis::decodeSet));
+    }
+
+    @Override
+    public boolean isMember(String key, String value) {
+        return redis.call("sismember", key, () -> redis.execute(redis.command(Protocol.Command.SISMEMBER.raw, key, value)).thenApply(reply -> (Long) reply == 1));
+    }
+
+    @Override
+    public boolean remove(String key, String... values) {
+        return redis.call("srem", key, () -> redis.execute(redis.command(Protocol.Command.SREM.raw, key, values)).thenApply(reply -> (Long) reply >= 1));
+    }
+}
@@ -0,0 +1,187 @@
+package core.framework.impl.redis;
+
+import core.framework.api.log.ActionLogContext;
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import core.framework.api.util.StopWatch;
+import core.framework.impl.resource.PoolItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * @author neo
+ */
+public final class RedisBatchImpl implements RedisBatch {
+    private final Logger logger = LoggerFactory.getLogger(RedisBatchImpl.class);
+    private final RedisImpl redis;
+    private List<Command<?, ?>> commands = Lists.newArrayList();
+
+    RedisBatchImpl(RedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return read(pipeline -> pipeline.get(redis.encode(key)), redis::decode);
+    }
+
+    @Override
+    public void set(String key, String value) {
+        write(pipeline -> pipeline.set(redis.encode(key), redis.encode(value)));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        write(pipeline -> pipeline.setex(redis.encode(key), (int) expiration.getSeconds(), redis.encode(value)));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsent(String key, String value, Duration expiration) {
+        return read(pipeline -> pipeline.set(redis.encode(key), redis.encode(value), RedisImpl.NX, RedisImpl.EX, (int) expiration.getSeconds()), "OK"::equals);
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        write(pipeline -> pipeline.expire(redis.encode(key), (int) duration.getSeconds()));
+    }
+
+    @Override
+    public void del(String key) {
+        write(pipeline -> pipeline.del(redis.encode(key)));
+    }
+
+    @Override
+    public CompletableFuture<String> hget(String key, String field) {
+        return read(pipeline -> pipeline.hget(redis.encode(key), redis.encode(field)), redis::decode);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAll(String key) {
+        return read(pipeline -> pipeline.hgetAll(redis.encode(key)), redisValues -> {
+            Map<String, String> values = Maps.newHashMapWithExpectedSize(redisValues.size());
+            for (Map.Entry<byte[], byte[]> entry : redisValues.entrySet()) {
+                values.put(redis.decode(entry.getKey()), redis.decode(entry.getValue()));
+            }
+            return values;
+        });
+    }
+
+    @Override
+    public void hset(String key, String field, String value) {
+        write(pipeline -> pipeline.hset(redis.encode(key), redis.encode(field), redis.encode(value)));
+    }
+
+    @Override
+    public void hdel(String key, String... fields) {
+        write(pipeline -> pipeline.hdel(redis.encode(key), redis.encode(fields)));
+    }
+
+    @Override
+    public void sadd(String key, String value) {
+        write(pipeline -> pipeline.sadd(redis.encode(key), redis.encode(value)));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> smembers(String key) {
+        return read(pipeline -> pipeline.smembers(redis.encode(key)), redisMembers -> {
+            Set<String> members = new HashSet<>(redisMembers.size());
+            for (byte[] redisMember : redisMembers) {
+                members.add(redis.decode(redisMember));
+            }
+            return members;
+        });
+    }
+
+    @Override
+    public void srem(String key, String... values) {
+        write(pipeline -> pipeline.srem(redis.encode(key), redis.encode(values)));
+    }
+
+    @Override
+    public void execute() {
+        List<Command<?, ?>> sending = commands;
+        if (sending.isEmpty()) return;
+        commands = Lists.newArrayList();     // batch can be reused after execute
+
+        StopWatch watch = new StopWatch();
+        PoolItem<BinaryJedis> item = redis.pool.borrowItem();
+        try {
+            Pipeline pipeline = item.resource.pipelined();
+            for (Command<?, ?> command : sending) {
+                command.send(pipeline);
+            }
+            pipeline.sync();
+        } catch (JedisConnectionException e) {
+            item.broken = true;
+            sending.forEach(command -> command.future.completeExceptionally(e));
+            throw e;
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("batch, commands={}, elapsedTime={}", sending.size(), elapsedTime);
+            redis.checkSlowOperation(elapsedTime);
+        }
+
+        JedisDataException error = null;
+        for (Command<?, ?> command : sending) {
+            JedisDataException commandError = command.complete();
+            if (commandError != null && command.write && error == null) error = commandError;
+        }
+        if (error != null) throw error;
+    }
+
+    private <R, T> CompletableFuture<T> read(Function<Pipeline, Response<R>> request, Function<R, T> decoder) {
+        Command<R, T> command = new Command<>(request, decoder, false);
+        commands.add(command);
+        return command.future;
+    }
+
+    private <R> void write(Function<Pipeline, Response<R>> request) {
+        commands.add(new Command<R, R>(request, value -> value, true));
+    }
+
+    private static final class Command<R, T> {
+        final Function<Pipeline, Response<R>> request;
+        final Function<R, T> decoder;
+        final boolean write;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        Response<R> response;
+
+        Command(Function<Pipeline, Response<R>> request, Function<R, T> decoder, boolean write) {
+            this.request = request;
+            this.decoder = decoder;
+            this.write = write;
+        }
+
+        void send(Pipeline pipeline) {
+            response = request.apply(pipeline);
+        }
+
+        JedisDataException complete() {
+            R value;
+            try {
+                value = response.get();
+            } catch (JedisDataException e) {
+                future.completeExceptionally(e);
+                return e;
+            }
+            future.complete(decoder.apply(value));   // decoders handle null reply
+            return null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package core.framework.impl.redis;
+
+/**
+ * @author neo
+ */
+public interface RedisChannelListener {
+    void onSubscribe();
+
+    void onMessage(byte[] message);
+}
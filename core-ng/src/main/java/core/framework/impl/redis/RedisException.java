@@ -0,0 +1,18 @@
+package core.framework.impl.redis;
+
+/**
+ * error reply from redis server, or connection failure of multiplexed client
+ *
+ * @author neo
+ */
+public final class RedisException extends RuntimeException {
+    private static final long serialVersionUID = 4516482398312648713L;
+
+    public RedisException(String message) {
+        super(message);
+    }
+
+    public RedisException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
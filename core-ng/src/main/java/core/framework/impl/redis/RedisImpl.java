@@ -3,7 +3,9 @@ package core.framework.impl.redis;
 import core.framework.api.log.ActionLogContext;
 import core.framework.api.log.Markers;
 import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisBatch;
 import core.framework.api.redis.RedisHash;
+import core.framework.api.redis.RedisScript;
 import core.framework.api.redis.RedisSet;
 import core.framework.api.util.Charsets;
 import core.framework.api.util.Maps;
@@ -15,11 +17,13 @@ import core.framework.impl.resource.PoolItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.BinaryJedis;
+import redis.clients.jedis.Client;
 import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Protocol;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -32,8 +36,9 @@ import java.util.function.Consumer;
  * @author neo
  */
 public final class RedisImpl implements Redis {
-    private static final byte[] NX = Strings.bytes("NX");
-    private static final byte[] EX = Strings.bytes("EX");
+    static final byte[] NX = Strings.bytes("NX");
+    static final byte[] EX = Strings.bytes("EX");
+    static final int DEL_BY_PATTERN_LOG_PAGES = 100;    // log progress of long running delByPattern, e.g. flush large cache
     public final Pool<BinaryJedis> pool;
     private final Logger logger = LoggerFactory.getLogger(RedisImpl.class);
     private final RedisSet redisSet = new RedisSetImpl(this);
@@ -47,6 +52,7 @@ public final class RedisImpl implements Redis {
         pool.name("redis");
         pool.size(5, 50);
         pool.maxIdleTime(Duration.ofMinutes(30));
+        pool.validator(client -> "PONG".equals(client.ping()));
         timeout(Duration.ofSeconds(5));
     }
 
@@ -63,7 +69,7 @@ public final class RedisImpl implements Redis {
         slowOperationThresholdInNanos = slowOperationThreshold.toNanos();
     }
 
-    private BinaryJedis createClient() {
+    BinaryJedis createClient() {
         if (host == null) throw new Error("redis.host must not be null");
         BinaryJedis client = new BinaryJedis(host, Protocol.DEFAULT_PORT, (int) timeout.toMillis());
         client.connect();
@@ -180,11 +186,11 @@ public final class RedisImpl implements Redis {
     }
 
     @Override
-    public void del(String key) {
+    public void del(String... keys) {
         StopWatch watch = new StopWatch();
         PoolItem<BinaryJedis> item = pool.borrowItem();
         try {
-            item.resource.del(encode(key));
+            item.resource.del(encode(keys));
         } catch (JedisConnectionException e) {
             item.broken = true;
             throw e;
@@ -192,7 +198,7 @@ public final class RedisImpl implements Redis {
             pool.returnItem(item);
             long elapsedTime = watch.elapsedTime();
             ActionLogContext.track("redis", elapsedTime);
-            logger.debug("del, key={}, elapsedTime={}", key, elapsedTime);
+            logger.debug("del, keys={}, elapsedTime={}", keys, elapsedTime);
             checkSlowOperation(elapsedTime);
         }
     }
@@ -282,11 +288,33 @@ public final class RedisImpl implements Redis {
         }
     }
 
+    public void publish(String channel, byte[] message) {
+        StopWatch watch = new StopWatch();
+        PoolItem<BinaryJedis> item = pool.borrowItem();
+        try {
+            item.resource.publish(encode(channel), message);
+        } catch (JedisConnectionException e) {
+            item.broken = true;
+            throw e;
+        } finally {
+            pool.returnItem(item);
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("publish, channel={}, message={}, elapsedTime={}", channel, LogParam.of(message), elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
     @Override
     public RedisHash hash() {
         return redisHash;
     }
 
+    @Override
+    public RedisBatch batch() {
+        return new RedisBatchImpl(this);
+    }
+
     @Override
     public void forEach(String pattern, Consumer<String> consumer) {
         StopWatch watch = new StopWatch();
@@ -315,6 +343,84 @@ public final class RedisImpl implements Redis {
         }
     }
 
+    @Override
+    public <T> T eval(RedisScript<T> script, List<String> keys, Object... args) {
+        StopWatch watch = new StopWatch();
+        PoolItem<BinaryJedis> item = pool.borrowItem();
+        try {
+            Object reply = eval(item.resource, script, keys.size(), RedisScripts.params(keys, args));
+            return RedisScripts.result(script, reply);
+        } catch (JedisConnectionException e) {
+            item.broken = true;
+            throw e;
+        } finally {
+            pool.returnItem(item);
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("eval, sha1={}, keys={}, args={}, elapsedTime={}", script.sha1, keys, args, elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
+    private Object eval(BinaryJedis client, RedisScript<?> script, int keyCount, byte[][] params) {
+        try {
+            return client.evalsha(encode(script.sha1), keyCount, params);
+        } catch (JedisNoScriptException e) {   // script cache is empty after redis restarted or failed over, EVAL loads script
+            logger.debug("script not found, load by eval, sha1={}", script.sha1);
+            return client.eval(encode(script.script), keyCount, params);
+        }
+    }
+
+    public void load(RedisScript<?> script) {
+        StopWatch watch = new StopWatch();
+        PoolItem<BinaryJedis> item = pool.borrowItem();
+        try {
+            item.resource.scriptLoad(encode(script.script));
+        } catch (JedisConnectionException e) {
+            item.broken = true;
+            throw e;
+        } finally {
+            pool.returnItem(item);
+            logger.info("load script, host={}, sha1={}, elapsedTime={}", host, script.sha1, watch.elapsedTime());
+        }
+    }
+
+    // DEL of current page is sent together with SCAN of next page, so each page takes one round trip on same connection
+    @Override
+    public long delByPattern(String pattern) {
+        StopWatch watch = new StopWatch();
+        PoolItem<BinaryJedis> item = pool.borrowItem();
+        long deleted = 0;
+        int pages = 0;
+        try {
+            Client client = item.resource.getClient();
+            ScanParams params = new ScanParams().match(pattern).count(500);
+            client.scan(encode("0"), params);
+            while (true) {
+                List<Object> result = client.getObjectMultiBulkReply();
+                byte[] cursor = (byte[]) result.get(0);
+                @SuppressWarnings("unchecked")
+                List<byte[]> keys = (List<byte[]>) result.get(1);
+                boolean completed = "0".equals(decode(cursor));
+                if (!keys.isEmpty()) client.del(keys.toArray(new byte[keys.size()][]));    // DEL without key is error reply
+                if (!completed) client.scan(cursor, params);
+                if (!keys.isEmpty()) deleted += client.getIntegerReply();
+                pages++;
+                if (pages % DEL_BY_PATTERN_LOG_PAGES == 0) logger.info("delete keys by pattern, pattern={}, pages={}, deleted={}", pattern, pages, deleted);
+                if (completed) break;
+            }
+            return deleted;
+        } catch (RuntimeException e) {  // replies of pipelined DEL/SCAN may be left unread, e.g. on JedisDataException, connection can not be reused
+            item.broken = true;
+            throw e;
+        } finally {
+            pool.returnItem(item);
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("delByPattern, pattern={}, deleted={}, elapsedTime={}", pattern, deleted, elapsedTime);
+        }
+    }
+
     byte[] encode(String value) {   // redis does not accept null
         return Strings.bytes(value);
     }
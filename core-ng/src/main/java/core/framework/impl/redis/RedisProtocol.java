@@ -0,0 +1,153 @@
+package core.framework.impl.redis;
+
+import core.framework.api.util.Exceptions;
+import core.framework.api.util.Lists;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+
+/**
+ * RESP, refer to https://redis.io/topics/protocol,
+ * reply is decoded to String (simple string), Long (integer), byte[] (bulk string), List (array), RedisException (error) or null
+ *
+ * @author neo
+ */
+final class RedisProtocol {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    static ByteBuffer encode(List<byte[][]> commands) {
+        int size = 0;
+        for (byte[][] command : commands) {
+            size += 1 + digits(command.length) + 2;
+            for (byte[] argument : command) {
+                size += 1 + digits(argument.length) + 2 + argument.length + 2;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[][] command : commands) {
+            buffer.put((byte) '*');
+            putInt(buffer, command.length);
+            for (byte[] argument : command) {
+                buffer.put((byte) '$');
+                putInt(buffer, argument.length);
+                buffer.put(argument).put(CRLF);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void putInt(ByteBuffer buffer, int value) {
+        int digits = digits(value);
+        int position = buffer.position() + digits;
+        int remaining = value;
+        for (int i = position - 1; i >= buffer.position(); i--) {
+            buffer.put(i, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        buffer.position(position);
+        buffer.put(CRLF);
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    static final class Reader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(65536);
+
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        Object read() throws IOException {
+            byte type = readByte();
+            switch (type) {
+                case '+':
+                    return readLine();
+                case '-':
+                    return new RedisException(readLine());
+                case ':':
+                    return readLong();
+                case '$':
+                    return readBulkString();
+                case '*':
+                    return readArray();
+                default:
+                    throw Exceptions.error("unknown redis reply type, type={}", (char) type);
+            }
+        }
+
+        private byte[] readBulkString() throws IOException {
+            int length = (int) readLong();
+            if (length < 0) return null;
+            byte[] bytes = new byte[length];
+            int position = 0;
+            while (position < length) {
+                if (!buffer.hasRemaining()) fill();
+                int size = Math.min(buffer.remaining(), length - position);
+                buffer.get(bytes, position, size);
+                position += size;
+            }
+            readByte();     // CR
+            readByte();     // LF
+            return bytes;
+        }
+
+        private List<Object> readArray() throws IOException {
+            int size = (int) readLong();
+            if (size < 0) return null;
+            List<Object> values = Lists.newArrayList();
+            for (int i = 0; i < size; i++) {
+                values.add(read());
+            }
+            return values;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder builder = new StringBuilder();
+            while (true) {
+                byte value = readByte();
+                if (value == '\r') {
+                    readByte();     // LF
+                    return builder.toString();
+                }
+                builder.append((char) value);
+            }
+        }
+
+        private long readLong() throws IOException {
+            byte value = readByte();
+            boolean negative = value == '-';
+            if (negative) value = readByte();
+            long result = 0;
+            while (value != '\r') {
+                result = result * 10 + value - '0';
+                value = readByte();
+            }
+            readByte();     // LF
+            return negative ? -result : result;
+        }
+
+        private byte readByte() throws IOException {
+            if (!buffer.hasRemaining()) fill();
+            return buffer.get();
+        }
+
+        private void fill() throws IOException {
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) throw new EOFException("redis connection is closed by server");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package core.framework.impl.redis;
+
+import core.framework.api.redis.RedisScript;
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Exceptions;
+import core.framework.api.util.Strings;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * encodes keys/args and decodes reply of lua script, shared by pooled and multiplexed clients
+ *
+ * @author neo
+ */
+final class RedisScripts {
+    static final String NOSCRIPT = "NOSCRIPT";
+
+    static byte[][] params(List<String> keys, Object... args) {
+        byte[][] params = new byte[keys.size() + args.length][];
+        int index = 0;
+        for (String key : keys) {
+            params[index++] = Strings.bytes(key);
+        }
+        for (Object arg : args) {
+            params[index++] = Strings.bytes(arg(arg));
+        }
+        return params;
+    }
+
+    private static String arg(Object arg) {
+        if (arg instanceof String) return (String) arg;
+        if (arg instanceof Number || arg instanceof Boolean) return String.valueOf(arg);
+        if (arg instanceof Enum) return ((Enum<?>) arg).name();
+        if (arg instanceof Duration) return String.valueOf(((Duration) arg).getSeconds());
+        throw Exceptions.error("unsupported script arg, arg={}", arg == null ? null : arg.getClass().getCanonicalName());
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T result(RedisScript<T> script, Object reply) {
+        Class<?> resultClass = script.resultClass;
+        if (resultClass == Boolean.class) return (T) Boolean.valueOf(Long.valueOf(1).equals(reply));
+        if (reply == null) return null;
+        if (resultClass == Long.class) {
+            if (!(reply instanceof Long)) throw Exceptions.error("script must return integer, reply={}", string(reply));
+            return (T) reply;
+        }
+        if (resultClass == List.class) {
+            if (!(reply instanceof List)) throw Exceptions.error("script must return table, reply={}", string(reply));
+            List<?> redisValues = (List<?>) reply;
+            List<String> values = new ArrayList<>(redisValues.size());
+            for (Object redisValue : redisValues) {
+                values.add(string(redisValue));
+            }
+            return (T) values;
+        }
+        return (T) string(reply);
+    }
+
+    // jedis returns status reply as byte[], multiplexed connection returns as String
+    private static String string(Object reply) {
+        if (reply == null) return null;
+        if (reply instanceof byte[]) return new String((byte[]) reply, Charsets.UTF_8);
+        return String.valueOf(reply);
+    }
+}
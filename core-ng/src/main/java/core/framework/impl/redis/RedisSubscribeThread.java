@@ -0,0 +1,75 @@
+package core.framework.impl.redis;
+
+import core.framework.api.util.Strings;
+import core.framework.api.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedis;
+import redis.clients.jedis.BinaryJedisPubSub;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * subscribe holds dedicated connection, not from pool, reconnect if connection is lost
+ *
+ * @author neo
+ */
+public final class RedisSubscribeThread extends Thread {
+    private final Logger logger = LoggerFactory.getLogger(RedisSubscribeThread.class);
+    private final AtomicBoolean stop = new AtomicBoolean(false);
+    private final RedisImpl redis;
+    private final String channel;
+    private final PubSub pubSub;
+
+    public RedisSubscribeThread(String name, RedisImpl redis, String channel, RedisChannelListener listener) {
+        super(name);
+        this.redis = redis;
+        this.channel = channel;
+        pubSub = new PubSub(listener);
+    }
+
+    @Override
+    public void run() {
+        while (!stop.get()) {
+            try (BinaryJedis client = redis.createClient()) {
+                logger.info("subscribe redis channel, channel={}", channel);
+                client.subscribe(pubSub, Strings.bytes(channel));
+            } catch (Throwable e) {
+                if (!stop.get()) {
+                    logger.warn("failed to subscribe redis channel, retry in 10 seconds, channel={}, error={}", channel, e.getMessage(), e);
+                    Threads.sleepRoughly(Duration.ofSeconds(10));
+                }
+            }
+        }
+    }
+
+    public void shutdown() {
+        logger.info("unsubscribe redis channel, channel={}", channel);
+        stop.set(true);
+        if (pubSub.isSubscribed()) pubSub.unsubscribe();
+    }
+
+    private static class PubSub extends BinaryJedisPubSub {
+        private final Logger logger = LoggerFactory.getLogger(PubSub.class);
+        private final RedisChannelListener listener;
+
+        PubSub(RedisChannelListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onSubscribe(byte[] channel, int subscribedChannels) {
+            listener.onSubscribe();
+        }
+
+        @Override
+        public void onMessage(byte[] channel, byte[] message) {
+            try {
+                listener.onMessage(message);
+            } catch (Throwable e) {
+                logger.warn("failed to process redis message, error={}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package core.framework.impl.redis;
+
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.util.Maps;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * commands are grouped by shard, batch of each shard is executed in parallel
+ *
+ * @author neo
+ */
+final class ShardedRedisBatch implements RedisBatch {
+    private final ShardedRedisImpl redis;
+    private Map<Integer, RedisBatch> batches = Maps.newHashMap();
+
+    ShardedRedisBatch(ShardedRedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return batch(key).get(key);
+    }
+
+    @Override
+    public void set(String key, String value) {
+        batch(key).set(key, value);
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        batch(key).set(key, value, expiration);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsent(String key, String value, Duration expiration) {
+        return batch(key).setIfAbsent(key, value, expiration);
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        batch(key).expire(key, duration);
+    }
+
+    @Override
+    public void del(String key) {
+        batch(key).del(key);
+    }
+
+    @Override
+    public CompletableFuture<String> hget(String key, String field) {
+        return batch(key).hget(key, field);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAll(String key) {
+        return batch(key).hgetAll(key);
+    }
+
+    @Override
+    public void hset(String key, String field, String value) {
+        batch(key).hset(key, field, value);
+    }
+
+    @Override
+    public void hdel(String key, String... fields) {
+        batch(key).hdel(key, fields);
+    }
+
+    @Override
+    public void sadd(String key, String value) {
+        batch(key).sadd(key, value);
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> smembers(String key) {
+        return batch(key).smembers(key);
+    }
+
+    @Override
+    public void srem(String key, String... values) {
+        batch(key).srem(key, values);
+    }
+
+    @Override
+    public void execute() {
+        Map<Integer, RedisBatch> executing = batches;
+        if (executing.isEmpty()) return;
+        batches = Maps.newHashMap();
+        redis.parallel(executing, (shard, batch) -> {
+            batch.execute();
+            return null;
+        });
+    }
+
+    private RedisBatch batch(String key) {
+        return batches.computeIfAbsent(redis.shardIndex(key), index -> redis.shards[index].batch());
+    }
+}
@@ -0,0 +1,423 @@
+package core.framework.impl.redis;
+
+import core.framework.api.log.ActionLogContext;
+import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.redis.RedisHash;
+import core.framework.api.redis.RedisScript;
+import core.framework.api.redis.RedisSet;
+import core.framework.api.util.Exceptions;
+import core.framework.api.util.Maps;
+import core.framework.api.util.StopWatch;
+import core.framework.impl.async.ThreadPools;
+import core.framework.impl.resource.Pool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedis;
+import redis.clients.util.Hashing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * spreads keys over multiple redis hosts by consistent hashing, each host has its own pool,
+ * only part of key within {} is hashed if key contains hash tag, e.g. {user:1}:profile and {user:1}:orders are on same shard,
+ * multiple keys operation is split by shard and executed in parallel
+ *
+ * @author neo
+ */
+public final class ShardedRedisImpl implements Redis {
+    private static final int VIRTUAL_NODES = 160;
+
+    private final Logger logger = LoggerFactory.getLogger(ShardedRedisImpl.class);
+    private final String name;
+    private final RedisSet redisSet = new ShardedRedisSet();
+    private final RedisHash redisHash = new ShardedRedisHash();
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+    RedisImpl[] shards = new RedisImpl[0];
+    LongAdder[] operations = new LongAdder[0];
+    private ThreadPoolExecutor executor;
+    private Duration timeout;
+    private Duration slowOperationThreshold;
+    private int minPoolSize = -1;
+    private int maxPoolSize = -1;
+    private Duration targetPoolWaitTime;
+
+    public ShardedRedisImpl(String name) {
+        this.name = name;
+    }
+
+    public void hosts(String... hosts) {
+        if (hosts.length == 0) throw new Error("redis hosts must not be empty");
+        if (shards.length > 0) throw new Error("redis hosts are already configured, hosts=" + String.join(",", hosts));
+        RedisImpl[] redisShards = new RedisImpl[hosts.length];
+        LongAdder[] shardOperations = new LongAdder[hosts.length];
+        for (int i = 0; i < hosts.length; i++) {
+            RedisImpl redis = new RedisImpl();
+            redis.host(hosts[i]);
+            redis.pool.name(hosts.length == 1 ? name : name + "-" + i);
+            redisShards[i] = redis;
+            shardOperations[i] = new LongAdder();
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(Hashing.MURMUR_HASH.hash(hosts[i] + "-NODE-" + node), i);
+            }
+        }
+        shards = redisShards;
+        operations = shardOperations;
+        if (timeout != null) timeout(timeout);
+        if (slowOperationThreshold != null) slowOperationThreshold(slowOperationThreshold);
+        if (minPoolSize >= 0) poolSize(minPoolSize, maxPoolSize);
+        if (targetPoolWaitTime != null) adaptivePoolSize(targetPoolWaitTime);
+        if (hosts.length > 1) executor = ThreadPools.boundedThreadPool(executorSize(), name + "-shard-");
+    }
+
+    public void poolSize(int minSize, int maxSize) {
+        minPoolSize = minSize;
+        maxPoolSize = maxSize;
+        for (RedisImpl shard : shards) {
+            shard.pool.size(minSize, maxSize);
+        }
+        if (executor != null) executor.setMaximumPoolSize(executorSize());
+    }
+
+    // each concurrent caller may hold one connection per shard, more threads than total connections would only wait on pool
+    private int executorSize() {
+        return shards.length * shards[0].pool.maxSize();
+    }
+
+    public void adaptivePoolSize(Duration targetWaitTime) {
+        targetPoolWaitTime = targetWaitTime;
+        for (RedisImpl shard : shards) {
+            shard.pool.adaptive(targetWaitTime);
+        }
+    }
+
+    public void adjustPoolSize() {
+        for (RedisImpl shard : shards) {
+            shard.pool.adjustSize();
+        }
+    }
+
+    public void timeout(Duration timeout) {
+        this.timeout = timeout;
+        for (RedisImpl shard : shards) {
+            shard.timeout(timeout);
+        }
+    }
+
+    public void slowOperationThreshold(Duration threshold) {
+        slowOperationThreshold = threshold;
+        for (RedisImpl shard : shards) {
+            shard.slowOperationThreshold(threshold);
+        }
+    }
+
+    public List<Pool<BinaryJedis>> pools() {
+        List<Pool<BinaryJedis>> pools = new ArrayList<>(shards.length);
+        for (RedisImpl shard : shards) {
+            pools.add(shard.pool);
+        }
+        return pools;
+    }
+
+    public void refresh() {
+        for (RedisImpl shard : shards) {
+            shard.pool.refresh();
+        }
+    }
+
+    public void close() {
+        for (RedisImpl shard : shards) {
+            shard.close();
+        }
+        if (executor != null) executor.shutdown();
+    }
+
+    @Override
+    public String get(String key) {
+        return shard(key).get(key);
+    }
+
+    public byte[] getBytes(String key) {
+        return shard(key).getBytes(key);
+    }
+
+    @Override
+    public void set(String key, String value) {
+        shard(key).set(key, value);
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        shard(key).set(key, value, expiration);
+    }
+
+    public void set(String key, byte[] value, Duration expiration) {
+        shard(key).set(key, value, expiration);
+    }
+
+    @Override
+    public RedisSet set() {
+        return redisSet;
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration expiration) {
+        return shard(key).setIfAbsent(key, value, expiration);
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        shard(key).expire(key, duration);
+    }
+
+    @Override
+    public void del(String... keys) {
+        if (shards.length == 1) {
+            operations[0].increment();
+            shards[0].del(keys);
+            return;
+        }
+        Map<Integer, List<String>> keysByShard = Maps.newHashMap();
+        for (String key : keys) {
+            keysByShard.computeIfAbsent(shardIndex(key), index -> new ArrayList<>()).add(key);
+        }
+        parallel(keysByShard, (shard, shardKeys) -> {
+            shard.del(shardKeys.toArray(new String[shardKeys.size()]));
+            return null;
+        });
+    }
+
+    @Override
+    public long delByPattern(String pattern) {
+        if (shards.length == 1) {
+            operations[0].increment();
+            return shards[0].delByPattern(pattern);
+        }
+        Map<Integer, String> patterns = Maps.newHashMap();
+        for (int i = 0; i < shards.length; i++) {
+            patterns.put(i, pattern);
+        }
+        return parallel(patterns, RedisImpl::delByPattern).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public Map<String, String> multiGet(String... keys) {
+        return multiGet(keys, RedisImpl::multiGet);
+    }
+
+    private <T> Map<String, T> multiGet(String[] keys, BiFunction<RedisImpl, String[], Map<String, T>> multiGet) {
+        if (shards.length == 1) {
+            operations[0].increment();
+            return multiGet.apply(shards[0], keys);
+        }
+        Map<Integer, List<String>> keysByShard = Maps.newHashMap();
+        for (String key : keys) {
+            keysByShard.computeIfAbsent(shardIndex(key), index -> new ArrayList<>()).add(key);
+        }
+        Map<String, T> values = Maps.newHashMapWithExpectedSize(keys.length);
+        List<Map<String, T>> results = parallel(keysByShard, (shard, shardKeys) -> multiGet.apply(shard, shardKeys.toArray(new String[shardKeys.size()])));
+        results.forEach(values::putAll);
+        return values;
+    }
+
+    public Map<String, byte[]> multiGetBytes(String... keys) {
+        return multiGet(keys, RedisImpl::multiGetBytes);
+    }
+
+    @Override
+    public void multiSet(Map<String, String> values) {
+        multiSet(values, RedisImpl::multiSet);
+    }
+
+    public void multiSet(Map<String, byte[]> values, Duration expiration) {
+        multiSet(values, (shard, shardValues) -> shard.multiSet(shardValues, expiration));
+    }
+
+    private <T> void multiSet(Map<String, T> values, BiConsumer<RedisImpl, Map<String, T>> multiSet) {
+        if (shards.length == 1) {
+            operations[0].increment();
+            multiSet.accept(shards[0], values);
+            return;
+        }
+        Map<Integer, Map<String, T>> valuesByShard = Maps.newHashMap();
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            valuesByShard.computeIfAbsent(shardIndex(entry.getKey()), index -> Maps.newHashMap()).put(entry.getKey(), entry.getValue());
+        }
+        parallel(valuesByShard, (shard, shardValues) -> {
+            multiSet.accept(shard, shardValues);
+            return null;
+        });
+    }
+
+    @Override
+    public RedisHash hash() {
+        return redisHash;
+    }
+
+    @Override
+    public void forEach(String pattern, Consumer<String> consumer) {
+        for (RedisImpl shard : shards) {
+            shard.forEach(pattern, consumer);
+        }
+    }
+
+    @Override
+    public RedisBatch batch() {
+        if (shards.length == 1) return shards[0].batch();
+        return new ShardedRedisBatch(this);
+    }
+
+    // all keys must be on same shard, use {tag} to group keys accessed by one script
+    @Override
+    public <T> T eval(RedisScript<T> script, List<String> keys, Object... args) {
+        int index = keys.isEmpty() ? 0 : shardIndex(keys.get(0));
+        for (String key : keys) {
+            if (shardIndex(key) != index) throw Exceptions.error("keys of script must be on same shard, firstKey={}, key={}", keys.get(0), key);
+        }
+        operations[index].increment();
+        return shards[index].eval(script, keys, args);
+    }
+
+    public void load(RedisScript<?> script) {
+        for (RedisImpl shard : shards) {
+            shard.load(script);
+        }
+    }
+
+    // run last shard on caller thread and others on executor, each shard counts as one redis call,
+    // shard on caller thread tracks itself, action log is bound to caller thread, so executor shards are tracked by caller after completion
+    <V, R> List<R> parallel(Map<Integer, V> tasks, BiFunction<RedisImpl, V, R> task) {
+        StopWatch watch = new StopWatch();
+        List<CompletableFuture<R>> futures = new ArrayList<>(tasks.size());
+        long[] elapsedTimes = new long[tasks.size()];   // -1 if shard ran on caller thread, written before future completes
+        try {
+            int position = 0;
+            for (Map.Entry<Integer, V> entry : tasks.entrySet()) {
+                int index = entry.getKey();
+                operations[index].increment();
+                if (position == tasks.size() - 1) {
+                    futures.add(CompletableFuture.completedFuture(task.apply(shards[index], entry.getValue())));
+                } else {
+                    futures.add(async(() -> task.apply(shards[index], entry.getValue()), elapsedTimes, position));
+                }
+                position++;
+            }
+            List<R> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        } finally {
+            for (int i = 0; i < futures.size() - 1; i++) {
+                if (futures.get(i).isDone() && elapsedTimes[i] >= 0) ActionLogContext.track("redis", elapsedTimes[i]);
+            }
+            logger.debug("parallel, shards={}, elapsedTime={}", tasks.keySet(), watch.elapsedTime());
+        }
+    }
+
+    private <R> CompletableFuture<R> async(Supplier<R> task, long[] elapsedTimes, int position) {
+        Thread caller = Thread.currentThread();
+        return CompletableFuture.supplyAsync(() -> {
+            StopWatch watch = new StopWatch();
+            try {
+                return task.get();
+            } finally {
+                elapsedTimes[position] = Thread.currentThread() == caller ? -1 : watch.elapsedTime();   // executor runs task on caller thread when busy
+            }
+        }, executor);
+    }
+
+    public RedisImpl shard(int index) {
+        return shards[index];
+    }
+
+    RedisImpl shard(String key) {
+        int index = shardIndex(key);
+        operations[index].increment();
+        return shards[index];
+    }
+
+    int shardIndex(String key) {
+        if (shards.length == 1) return 0;
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(Hashing.MURMUR_HASH.hash(hashKey(key)));
+        if (entry == null) entry = ring.firstEntry();
+        return entry.getValue();
+    }
+
+    String hashKey(String key) {
+        int start = key.indexOf('{');
+        if (start >= 0) {
+            int end = key.indexOf('}', start + 1);
+            if (end > start + 1) return key.substring(start + 1, end);
+        }
+        return key;
+    }
+
+    private final class ShardedRedisSet implements RedisSet {
+        @Override
+        public boolean add(String key, String value) {
+            return shard(key).set().add(key, value);
+        }
+
+        @Override
+        public Set<String> members(String key) {
+            return shard(key).set().members(key);
+        }
+
+        @Override
+        public boolean isMember(String key, String value) {
+            return shard(key).set().isMember(key, value);
+        }
+
+        @Override
+        public boolean remove(String key, String... values) {
+            return shard(key).set().remove(key, values);
+        }
+    }
+
+    private final class ShardedRedisHash implements RedisHash {
+        @Override
+        public String get(String key, String field) {
+            return shard(key).hash().get(key, field);
+        }
+
+        @Override
+        public Map<String, String> getAll(String key) {
+            return shard(key).hash().getAll(key);
+        }
+
+        @Override
+        public void set(String key, String field, String value) {
+            shard(key).hash().set(key, field, value);
+        }
+
+        @Override
+        public void multiSet(String key, Map<String, String> values) {
+            shard(key).hash().multiSet(key, values);
+        }
+
+        @Override
+        public void del(String key, String... fields) {
+            shard(key).hash().del(key, fields);
+        }
+    }
+}
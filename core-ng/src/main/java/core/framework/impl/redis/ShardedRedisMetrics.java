@@ -0,0 +1,36 @@
+package core.framework.impl.redis;
+
+import core.framework.impl.log.stat.Metrics;
+
+import java.util.Map;
+
+/**
+ * pool of each shard is reported by PoolMetrics
+ *
+ * @author neo
+ */
+public final class ShardedRedisMetrics implements Metrics {
+    private final String name;
+    private final ShardedRedisImpl redis;
+    private long[] previousOperations;
+
+    public ShardedRedisMetrics(String name, ShardedRedisImpl redis) {
+        this.name = name;
+        this.redis = redis;
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        int shards = redis.shards.length;
+        if (previousOperations == null || previousOperations.length != shards) previousOperations = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            long operations = redis.operations[i].sum();
+            stats.put(statName(i, "operations"), (double) (operations - previousOperations[i]));
+            previousOperations[i] = operations;
+        }
+    }
+
+    private String statName(int shard, String statName) {
+        return name + "_shard_" + shard + "_" + statName;
+    }
+}
@@ -1,14 +1,20 @@
 package core.framework.impl.resource;
 
 import core.framework.api.util.StopWatch;
+import core.framework.impl.async.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.WeakReference;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Iterator;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -20,18 +26,32 @@ import java.util.function.Supplier;
  * is to keep original exception, and simplify context variable access (read or write var within method),
  * <p>
  * the downside is boilerplate code, so to keep it only for internal
+ * <p>
+ * borrow and return do not lock, thread tries the item it returned last time first, then scans all items from random offset and takes idle one by CAS,
+ * when pool is exhausted, thread parks on fair handoff queue, returned item is handed to longest waiting thread without becoming idle, so scanning threads can not take it,
+ * waiter still competes with new borrowers for items left idle when no waiter was polling
  *
  * @author neo
  */
 public final class Pool<T> {
-    final BlockingDeque<PoolItem<T>> idleItems = new LinkedBlockingDeque<>();
+    private static final int MAX_HANDOFF_ATTEMPTS = 64;
+    private static final long WAIT_POLL_INTERVAL_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    public final PoolStats stats = new PoolStats();
+    final List<PoolItem<T>> items = new CopyOnWriteArrayList<>();     // all items, only changed on create and recycle
+    final AtomicInteger waiters = new AtomicInteger(0);
     private final Logger logger = LoggerFactory.getLogger(Pool.class);
+    private final ThreadLocal<WeakReference<PoolItem<T>>> lastItem = new ThreadLocal<>();     // weak, not to pin recycled item and its closed resource by idle thread
+    private final SynchronousQueue<PoolItem<T>> handoffQueue = new SynchronousQueue<>(true);
     private final AtomicInteger total = new AtomicInteger(0);
     private final Supplier<T> factory;
     private final ResourceCloseHandler<T> closeHandler;
+    private ResourceValidator<T> validator;
+    private PoolSizer sizer;
     private String name;
     private int minSize = 1;
     private int maxSize = 50;
+    private volatile int limit = 50;     // current size limit, equals to maxSize unless adaptive
     private Duration maxIdleTime = Duration.ofMinutes(30);
     private long checkoutTimeoutInMs = Duration.ofSeconds(30).toMillis();
 
@@ -44,9 +64,19 @@ public final class Pool<T> {
         this.name = name;
     }
 
+    public String name() {
+        return name;
+    }
+
     public void size(int minSize, int maxSize) {
         this.minSize = minSize;
         this.maxSize = maxSize;
+        limit = maxSize;
+    }
+
+    // adjust limit between minSize and maxSize by adjustSize(), start with maxSize and shrink in quiet period
+    public void adaptive(Duration targetWaitTime) {
+        sizer = new PoolSizer(targetWaitTime, System.nanoTime());
     }
 
     public void maxIdleTime(Duration maxIdleTime) {
@@ -57,29 +87,101 @@ public final class Pool<T> {
         checkoutTimeoutInMs = checkoutTimeout.toMillis();
     }
 
+    public void validator(ResourceValidator<T> validator) {
+        this.validator = validator;
+    }
+
+    public int minSize() {
+        return minSize;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public double concurrency() {
+        return sizer == null ? 0 : sizer.concurrency;
+    }
+
+    public int total() {
+        return total.get();
+    }
+
+    public int idleCount() {
+        int count = 0;
+        for (PoolItem<T> item : items) {
+            if (item.idle()) count++;
+        }
+        return count;
+    }
+
     public PoolItem<T> borrowItem() {
-        PoolItem<T> item = idleItems.poll();
+        stats.checkouts.increment();
+        PoolItem<T> item = acquireItem();
+        item.borrowTime = System.nanoTime();
+        return item;
+    }
+
+    private PoolItem<T> acquireItem() {
+        WeakReference<PoolItem<T>> reference = lastItem.get();
+        PoolItem<T> item = reference == null ? null : reference.get();
+        if (item != null && item.acquire()) return item;
+        if (reference != null) lastItem.remove();     // item is taken by other thread or removed
+
+        item = acquireIdleItem();
         if (item != null) return item;
 
-        if (total.get() < maxSize) {
-            return createNewItem();
-        } else {
-            return waitNextAvailableItem();
-        }
+        item = createNewItem();
+        if (item != null) return item;
+
+        return waitNextAvailableItem();
     }
 
     public void returnItem(PoolItem<T> item) {
+        if (item.borrowTime > 0) stats.usageTime.add(System.nanoTime() - item.borrowTime);
+        item.borrowTime = 0;
         if (item.broken) {
             recycleItem(item);
-        } else {
-            item.returnTime = System.currentTimeMillis();
-            idleItems.push(item);
+            return;
+        }
+        item.returnTime = System.currentTimeMillis();
+        WeakReference<PoolItem<T>> reference = lastItem.get();
+        if (reference == null || reference.get() != item) lastItem.set(new WeakReference<>(item));
+        for (int i = 0; i < MAX_HANDOFF_ATTEMPTS && waiters.get() > 0; i++) {     // hand over in use item to waiting thread
+            if (handoffQueue.offer(item)) return;
+            Thread.yield();
         }
+        item.state.set(PoolItem.IDLE);  // leave item idle if no waiter is polling, waiter scans idle items in every poll interval
+    }
+
+    private PoolItem<T> acquireIdleItem() {
+        int size = items.size();
+        if (size == 0) return null;
+        int start = ThreadLocalRandom.current().nextInt(size);     // spread threads over items, not to CAS on same first items under contention
+        int index = 0;
+        for (PoolItem<T> item : items) {
+            if (index >= start && item.acquire()) return item;
+            index++;
+        }
+        index = 0;
+        for (PoolItem<T> item : items) {    // wrap around to items before start
+            if (index >= start) break;
+            if (item.acquire()) return item;
+            index++;
+        }
+        return null;
     }
 
     private void recycleItem(PoolItem<T> item) {
         StopWatch watch = new StopWatch();
+        item.state.set(PoolItem.REMOVED);
+        items.remove(item);
         int total = this.total.decrementAndGet();
+        stats.recycles.increment();
         try {
             closeResource(item.resource);
         } finally {
@@ -89,22 +191,45 @@ public final class Pool<T> {
 
     private PoolItem<T> waitNextAvailableItem() {
         StopWatch watch = new StopWatch();
+        waiters.incrementAndGet();
         try {
-            PoolItem<T> item = idleItems.poll(checkoutTimeoutInMs, TimeUnit.MILLISECONDS);
-            if (item == null) throw new PoolException("timeout to wait for next available resource", "POOL_TIME_OUT");
-            return item;
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(checkoutTimeoutInMs);
+            while (true) {
+                PoolItem<T> item = acquireIdleItem();   // item may be returned before current thread is counted as waiter
+                if (item != null) return item;
+                item = createNewItem();     // limit may be raised by adjustSize() or recycled broken item frees capacity
+                if (item != null) return item;
+                long remaining = end - System.nanoTime();
+                if (remaining <= 0) {
+                    stats.timeouts.increment();
+                    throw new PoolException("timeout to wait for next available resource", "POOL_TIME_OUT");
+                }
+                item = handoffQueue.poll(Math.min(remaining, WAIT_POLL_INTERVAL_IN_NANOS), TimeUnit.NANOSECONDS);
+                if (item != null) return item;     // handed off item is still in use
+            }
         } catch (InterruptedException e) {
             throw new Error("interrupted during waiting for next available resource", e);
         } finally {
-            logger.debug("wait for next available resource, pool={}, total={}, elapsed={}", name, total.get(), watch.elapsedTime());
+            waiters.decrementAndGet();
+            long elapsedTime = watch.elapsedTime();
+            stats.waited(elapsedTime);
+            logger.debug("wait for next available resource, pool={}, total={}, elapsed={}", name, total.get(), elapsedTime);
         }
     }
 
+    // return null if pool is full
     private PoolItem<T> createNewItem() {
+        while (true) {
+            int current = total.get();
+            if (current >= limit) return null;
+            if (total.compareAndSet(current, current + 1)) break;
+        }
         StopWatch watch = new StopWatch();
-        total.incrementAndGet();
         try {
-            return new PoolItem<>(factory.get());
+            PoolItem<T> item = new PoolItem<>(factory.get());
+            items.add(item);
+            stats.creates.increment();
+            return item;
         } catch (Throwable e) {
             total.getAndDecrement();
             throw e;
@@ -113,32 +238,105 @@ public final class Pool<T> {
         }
     }
 
+    // create resources up to minSize in parallel, called before http server starts, so first requests do not pay for connecting
+    public void warmUp() {
+        int size = minSize - total.get();
+        if (size <= 0) return;
+        StopWatch watch = new StopWatch();
+        ExecutorService executor = ThreadPools.cachedThreadPool(size, "pool-" + name + "-warm-up-");
+        int created = 0;
+        try {
+            List<Future<PoolItem<T>>> futures = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                futures.add(executor.submit(this::createNewItem));
+            }
+            for (Future<PoolItem<T>> future : futures) {
+                PoolItem<T> item = createdItem(future);
+                if (item != null) {
+                    returnItem(item);
+                    created++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+            logger.info("warm up resource pool, pool={}, created={}, total={}, elapsed={}", name, created, total.get(), watch.elapsedTime());
+        }
+    }
+
+    // failure is logged and not to stop app from starting, the resource will be created on demand
+    private PoolItem<T> createdItem(Future<PoolItem<T>> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.warn("failed to create resource during warm up, pool={}, error={}", name, e.getCause().getMessage(), e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            throw new Error("interrupted during warming up pool", e);
+        }
+    }
+
     public void refresh() {
         logger.info("refresh resource pool, pool={}", name);
         recycleIdleItems();
+        validateIdleItems();
         replenish();
     }
 
     private void recycleIdleItems() {
-        Iterator<PoolItem<T>> iterator = idleItems.descendingIterator();
-        long maxIdleTimeInSeconds = maxIdleTime.getSeconds();
-        Instant now = Instant.now();
-
-        while (iterator.hasNext()) {
-            PoolItem<T> item = iterator.next();
-            if (Duration.between(Instant.ofEpochMilli(item.returnTime), now).getSeconds() > maxIdleTimeInSeconds) {
-                boolean removed = idleItems.remove(item);
-                if (!removed) return;
+        long expirationTime = System.currentTimeMillis() - maxIdleTime.toMillis();
+        for (PoolItem<T> item : items) {
+            if (item.idle() && item.returnTime < expirationTime && item.state.compareAndSet(PoolItem.IDLE, PoolItem.REMOVED)) {
                 recycleItem(item);
-            } else {
-                return;
             }
         }
     }
 
+    // idle item is taken out during validation, so borrowers never get item being validated, broken one is replaced by replenish()
+    private void validateIdleItems() {
+        if (validator == null) return;
+        for (PoolItem<T> item : items) {
+            if (item.acquire()) {
+                if (validate(item.resource)) {
+                    item.state.set(PoolItem.IDLE);     // keep returnTime, validation does not count as usage
+                } else {
+                    recycleItem(item);
+                }
+            }
+        }
+    }
+
+    private boolean validate(T resource) {
+        try {
+            return validator.validate(resource);
+        } catch (Exception e) {
+            logger.warn("failed to validate resource, pool={}, error={}", name, e.getMessage(), e);
+            return false;
+        }
+    }
+
     private void replenish() {
         while (total.get() < minSize) {
-            returnItem(createNewItem());
+            PoolItem<T> item = createNewItem();
+            if (item == null) return;
+            returnItem(item);
+        }
+    }
+
+    public void adjustSize() {
+        if (sizer == null) return;
+        int previousLimit = limit;
+        int nextLimit = sizer.limit(previousLimit, minSize, maxSize, stats, System.nanoTime());
+        if (nextLimit != previousLimit) {
+            limit = nextLimit;
+            stats.resizes.increment();
+            logger.info("adjust resource pool size, pool={}, limit={}, previousLimit={}, reason={}, concurrency={}, total={}",
+                name, nextLimit, previousLimit, sizer.reason, sizer.concurrency, total.get());
+        } else {
+            logger.debug("keep resource pool size, pool={}, limit={}, concurrency={}", name, nextLimit, sizer.concurrency);
+        }
+        for (PoolItem<T> item : items) {    // release idle items above limit, in use items are released on later adjustment after returned
+            if (total.get() <= nextLimit) break;
+            if (item.state.compareAndSet(PoolItem.IDLE, PoolItem.REMOVED)) recycleItem(item);
         }
     }
 
@@ -151,11 +349,12 @@ public final class Pool<T> {
     }
 
     public void close() {
-        total.set(maxSize);   // make sure no more new resource will be created
-        while (true) {
-            PoolItem<T> item = idleItems.poll();
-            if (item == null) return;
-            closeResource(item.resource);
+        limit = 0;   // make sure no more new resource will be created
+        for (PoolItem<T> item : items) {
+            if (item.state.compareAndSet(PoolItem.IDLE, PoolItem.REMOVED)) {
+                items.remove(item);
+                closeResource(item.resource);
+            }
         }
     }
 }
@@ -1,14 +1,30 @@
 package core.framework.impl.resource;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author neo
  */
 public final class PoolItem<T> {
+    static final int IN_USE = 0;
+    static final int IDLE = 1;
+    static final int REMOVED = 2;
+
     public final T resource;
+    final AtomicInteger state = new AtomicInteger(IN_USE);  // item is created for borrower, borrow and remove must win CAS from IDLE
     public boolean broken;
+    long borrowTime;    // in nanos, to measure usage time
     long returnTime;    // according to profiling, use System.currentTimeMillis instead of Instant.now()
 
     public PoolItem(T resource) {
         this.resource = resource;
     }
+
+    boolean acquire() {
+        return state.compareAndSet(IDLE, IN_USE);
+    }
+
+    boolean idle() {
+        return state.get() == IDLE;
+    }
 }
@@ -0,0 +1,91 @@
+package core.framework.impl.resource;
+
+import core.framework.api.util.Maps;
+import core.framework.impl.log.stat.Metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public final class PoolMetrics implements Metrics {
+    private final List<Pool<?>> pools;
+    private final Map<Pool<?>, Snapshot> previousSnapshots = Maps.newHashMap();
+
+    public PoolMetrics(List<Pool<?>> pools) {
+        this.pools = pools;
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        for (Pool<?> pool : pools) {
+            String name = pool.name();
+            PoolStats poolStats = pool.stats;
+            Snapshot current = new Snapshot(poolStats);
+            Snapshot previous = previousSnapshots.getOrDefault(pool, new Snapshot(current.waitTimes.length));
+            previousSnapshots.put(pool, current);
+
+            int total = pool.total();
+            int idle = pool.idleCount();
+            stats.put(statName(name, "total"), (double) total);
+            stats.put(statName(name, "idle"), (double) idle);
+            stats.put(statName(name, "active"), (double) Math.max(total - idle, 0));
+            stats.put(statName(name, "limit"), (double) pool.limit());
+            stats.put(statName(name, "concurrency"), pool.concurrency());
+            stats.put(statName(name, "resizes"), (double) (current.resizes - previous.resizes));
+            stats.put(statName(name, "checkouts"), (double) (current.checkouts - previous.checkouts));
+            stats.put(statName(name, "timeouts"), (double) (current.timeouts - previous.timeouts));
+            stats.put(statName(name, "creates"), (double) (current.creates - previous.creates));
+            stats.put(statName(name, "recycles"), (double) (current.recycles - previous.recycles));
+            long waits = current.waits - previous.waits;
+            stats.put(statName(name, "waits"), (double) waits);
+            if (waits > 0) {
+                stats.put(statName(name, "wait_time_avg"), (current.waitTime - previous.waitTime) / (double) waits / 1_000_000);
+                long[] waitTimes = new long[current.waitTimes.length];
+                for (int i = 0; i < waitTimes.length; i++) {
+                    waitTimes[i] = current.waitTimes[i] - previous.waitTimes[i];
+                }
+                long p99 = poolStats.waitTimes.percentile(waitTimes, 0.99);
+                if (p99 > 0) stats.put(statName(name, "wait_time_p99"), (double) p99);
+            }
+        }
+    }
+
+    private String statName(String name, String statName) {
+        return "pool_" + name + "_" + statName;
+    }
+
+    private static final class Snapshot {
+        final long checkouts;
+        final long waits;
+        final long waitTime;
+        final long timeouts;
+        final long creates;
+        final long recycles;
+        final long resizes;
+        final long[] waitTimes;
+
+        Snapshot(PoolStats stats) {
+            checkouts = stats.checkouts.sum();
+            waits = stats.waits.sum();
+            waitTime = stats.waitTime.sum();
+            timeouts = stats.timeouts.sum();
+            creates = stats.creates.sum();
+            recycles = stats.recycles.sum();
+            resizes = stats.resizes.sum();
+            waitTimes = stats.waitTimes.counts();
+        }
+
+        Snapshot(int waitTimeBuckets) {
+            checkouts = 0;
+            waits = 0;
+            waitTime = 0;
+            timeouts = 0;
+            creates = 0;
+            recycles = 0;
+            resizes = 0;
+            waitTimes = new long[waitTimeBuckets];
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package core.framework.impl.resource;
+
+import java.time.Duration;
+
+/**
+ * decides size limit of pool from stats of last interval,
+ * concurrency is estimated by little's law, L = λW = checkouts / elapsed * (usageTime / checkouts) = usageTime / elapsed,
+ * grows when average wait time exceeds target, shrinks toward estimated concurrency (with headroom) when nothing waited,
+ * limit is always within [minSize, maxSize], maxSize is the hard ceiling
+ *
+ * @author neo
+ */
+public final class PoolSizer {
+    private static final double HEADROOM = 1.5;
+
+    final long targetWaitTimeInNanos;
+    double concurrency;
+    String reason;
+    private long lastTime;
+    private long lastWaits;
+    private long lastWaitTime;
+    private long lastUsageTime;
+
+    PoolSizer(Duration targetWaitTime, long now) {
+        targetWaitTimeInNanos = targetWaitTime.toNanos();
+        lastTime = now;
+    }
+
+    int limit(int limit, int minSize, int maxSize, PoolStats stats, long now) {
+        long waits = stats.waits.sum();
+        long waitTime = stats.waitTime.sum();
+        long usageTime = stats.usageTime.sum();
+        long elapsed = now - lastTime;
+        long intervalWaits = waits - lastWaits;
+        long intervalWaitTime = waitTime - lastWaitTime;
+        long intervalUsageTime = usageTime - lastUsageTime;
+        lastTime = now;
+        lastWaits = waits;
+        lastWaitTime = waitTime;
+        lastUsageTime = usageTime;
+        if (elapsed <= 0) return limit;
+
+        concurrency = intervalUsageTime / (double) elapsed;
+        int required = (int) Math.ceil(concurrency * HEADROOM);
+        int step = Math.max(1, limit / 4);
+        int next = limit;
+        if (intervalWaits > 0 && intervalWaitTime / intervalWaits > targetWaitTimeInNanos) {
+            reason = "wait_time_exceeded";
+            next = Math.max(limit + step, required);
+        } else if (intervalWaits == 0 && required < limit) {
+            reason = "idle";
+            next = Math.max(required, limit - step);
+        } else {
+            reason = null;
+        }
+        return Math.min(maxSize, Math.max(minSize, next));
+    }
+}
@@ -0,0 +1,28 @@
+package core.framework.impl.resource;
+
+import core.framework.impl.log.stat.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * only checkout which waits for returned item is recorded into histogram, to keep fast path free of shared counters
+ *
+ * @author neo
+ */
+public final class PoolStats {
+    public final LongAdder checkouts = new LongAdder();
+    public final LongAdder waits = new LongAdder();
+    public final LongAdder waitTime = new LongAdder();     // in nanos
+    public final LongAdder timeouts = new LongAdder();
+    public final LongAdder creates = new LongAdder();
+    public final LongAdder recycles = new LongAdder();
+    public final LongAdder resizes = new LongAdder();
+    public final LongAdder usageTime = new LongAdder();     // in nanos, time from checkout to return, W of little's law
+    public final Histogram waitTimes = new Histogram(1, 5, 10, 50, 100, 500, 1000, 5000);    // in ms
+
+    void waited(long elapsedTime) {
+        waits.increment();
+        waitTime.add(elapsedTime);
+        waitTimes.record(elapsedTime / 1_000_000);
+    }
+}
@@ -1,11 +1,16 @@
 package core.framework.impl.web.management;
 
 import core.framework.api.http.ContentType;
+import core.framework.api.log.ActionLogContext;
 import core.framework.api.web.Request;
 import core.framework.api.web.Response;
 import core.framework.api.web.exception.NotFoundException;
 import core.framework.impl.cache.CacheImpl;
 import core.framework.impl.cache.CacheManager;
+import core.framework.impl.cache.CacheStats;
+import core.framework.impl.cache.RedisLocalCacheStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,6 +19,7 @@ import java.util.stream.Collectors;
  * @author neo
  */
 public class CacheController {
+    private final Logger logger = LoggerFactory.getLogger(CacheController.class);
     private final CacheManager cacheManager;
 
     public CacheController(CacheManager cacheManager) {
@@ -38,6 +44,18 @@ public class CacheController {
         return Response.text("cache evicted, name=" + name + ", key=" + key, ContentType.TEXT_PLAIN);
     }
 
+    public Response flush(Request request) throws Exception {
+        ControllerHelper.validateFromLocalNetwork(request.clientIP());
+        String name = request.pathParam("name");
+        CacheImpl<?> cache = cache(name);
+        ActionLogContext.put("cache", name);
+        logger.info("flush cache, name={}", name);  // redis logs progress every 100 scanned pages
+        long deleted = cache.flush();
+        logger.info("cache flushed, name={}, keys={}", name, deleted);
+        ActionLogContext.stat("cache_flushed_keys", deleted);
+        return Response.text("cache flushed, name=" + name + ", keys=" + deleted, ContentType.TEXT_PLAIN);
+    }
+
     public Response list(Request request) throws Exception {
         ControllerHelper.validateFromLocalNetwork(request.clientIP());
         List<CacheView> caches = cacheManager.caches().stream().map(this::view).collect(Collectors.toList());
@@ -53,6 +71,21 @@ public class CacheController {
         view.name = cache.name;
         view.type = cache.valueType.getTypeName();
         view.duration = (int) cache.duration.getSeconds();
+        if (cache.cacheStore instanceof RedisLocalCacheStore) {
+            RedisLocalCacheStore cacheStore = (RedisLocalCacheStore) cache.cacheStore;
+            view.localHitRate = cacheStore.localHitRate();
+            view.remoteHitRate = cacheStore.remoteHitRate();
+        }
+        CacheStats stats = cache.context.stats;
+        view.hits = stats.hits.sum();
+        view.misses = stats.misses.sum();
+        long total = view.hits + view.misses;
+        view.hitRate = total == 0 ? 0 : view.hits / (double) total;
+        view.loads = stats.loads.sum();
+        view.loadTimeAvg = view.loads == 0 ? 0 : stats.loadTime.sum() / (double) view.loads / 1_000_000;
+        view.loadTimes = ControllerHelper.histogram(stats.loadTimes, "ms");
+        view.evictions = stats.evictions.sum();
+        view.valueSizes = ControllerHelper.histogram(stats.valueSizes, "bytes");
         return view;
     }
 }
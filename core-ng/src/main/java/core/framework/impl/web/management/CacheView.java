@@ -3,6 +3,7 @@ package core.framework.impl.web.management;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
+import java.util.Map;
 
 /**
  * @author neo
@@ -15,4 +16,24 @@ public class CacheView {
     public String type;
     @XmlElement(name = "duration")
     public Integer duration;
+    @XmlElement(name = "localHitRate")
+    public Double localHitRate;
+    @XmlElement(name = "remoteHitRate")
+    public Double remoteHitRate;
+    @XmlElement(name = "hits")
+    public Long hits;
+    @XmlElement(name = "misses")
+    public Long misses;
+    @XmlElement(name = "hitRate")
+    public Double hitRate;
+    @XmlElement(name = "loads")
+    public Long loads;
+    @XmlElement(name = "loadTimeAvg")
+    public Double loadTimeAvg;
+    @XmlElement(name = "loadTimes")
+    public Map<String, Long> loadTimes;
+    @XmlElement(name = "evictions")
+    public Long evictions;
+    @XmlElement(name = "valueSizes")
+    public Map<String, Long> valueSizes;
 }
@@ -1,9 +1,12 @@
 package core.framework.impl.web.management;
 
+import core.framework.api.util.Maps;
 import core.framework.api.web.exception.ForbiddenException;
+import core.framework.impl.log.stat.Histogram;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Map;
 
 /**
  * @author neo
@@ -15,4 +18,14 @@ final class ControllerHelper {
             throw new ForbiddenException("access denied");
         }
     }
+
+    static Map<String, Long> histogram(Histogram histogram, String unit) {
+        Map<String, Long> results = Maps.newLinkedHashMap();
+        long[] counts = histogram.counts();
+        for (int i = 0; i < histogram.bounds.length; i++) {
+            results.put("<=" + histogram.bounds[i] + unit, counts[i]);
+        }
+        results.put(">" + histogram.bounds[histogram.bounds.length - 1] + unit, counts[counts.length - 1]);
+        return results;
+    }
 }
@@ -0,0 +1,50 @@
+package core.framework.impl.web.management;
+
+import core.framework.api.web.Controller;
+import core.framework.api.web.Request;
+import core.framework.api.web.Response;
+import core.framework.impl.resource.Pool;
+import core.framework.impl.resource.PoolStats;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author neo
+ */
+public class PoolController implements Controller {
+    private final List<Pool<?>> pools;
+
+    public PoolController(List<Pool<?>> pools) {
+        this.pools = pools;
+    }
+
+    @Override
+    public Response execute(Request request) throws Exception {
+        ControllerHelper.validateFromLocalNetwork(request.clientIP());
+        List<PoolView> views = pools.stream().map(this::view).collect(Collectors.toList());
+        return Response.bean(views);
+    }
+
+    private PoolView view(Pool<?> pool) {
+        PoolView view = new PoolView();
+        view.name = pool.name();
+        view.minSize = pool.minSize();
+        view.maxSize = pool.maxSize();
+        view.limit = pool.limit();
+        view.concurrency = pool.concurrency();
+        view.total = pool.total();
+        view.idle = pool.idleCount();
+        view.active = Math.max(view.total - view.idle, 0);
+        PoolStats stats = pool.stats;
+        view.checkouts = stats.checkouts.sum();
+        view.waits = stats.waits.sum();
+        view.waitTimeAvg = view.waits == 0 ? 0 : stats.waitTime.sum() / (double) view.waits / 1_000_000;
+        view.waitTimes = ControllerHelper.histogram(stats.waitTimes, "ms");
+        view.timeouts = stats.timeouts.sum();
+        view.creates = stats.creates.sum();
+        view.recycles = stats.recycles.sum();
+        view.resizes = stats.resizes.sum();
+        return view;
+    }
+}
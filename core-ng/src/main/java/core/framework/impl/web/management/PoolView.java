@@ -0,0 +1,45 @@
+package core.framework.impl.web.management;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class PoolView {
+    @XmlElement(name = "name")
+    public String name;
+    @XmlElement(name = "minSize")
+    public Integer minSize;
+    @XmlElement(name = "maxSize")
+    public Integer maxSize;
+    @XmlElement(name = "limit")
+    public Integer limit;
+    @XmlElement(name = "concurrency")
+    public Double concurrency;
+    @XmlElement(name = "total")
+    public Integer total;
+    @XmlElement(name = "active")
+    public Integer active;
+    @XmlElement(name = "idle")
+    public Integer idle;
+    @XmlElement(name = "checkouts")
+    public Long checkouts;
+    @XmlElement(name = "waits")
+    public Long waits;
+    @XmlElement(name = "waitTimeAvg")
+    public Double waitTimeAvg;
+    @XmlElement(name = "waitTimes")
+    public Map<String, Long> waitTimes;
+    @XmlElement(name = "timeouts")
+    public Long timeouts;
+    @XmlElement(name = "creates")
+    public Long creates;
+    @XmlElement(name = "recycles")
+    public Long recycles;
+    @XmlElement(name = "resizes")
+    public Long resizes;
+}
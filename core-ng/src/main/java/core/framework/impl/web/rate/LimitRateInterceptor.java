@@ -1,5 +1,6 @@
 package core.framework.impl.web.rate;
 
+import core.framework.api.redis.Redis;
 import core.framework.api.web.Interceptor;
 import core.framework.api.web.Invocation;
 import core.framework.api.web.Response;
@@ -8,6 +9,7 @@ import core.framework.api.web.rate.LimitRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -16,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 public class LimitRateInterceptor implements Interceptor {
     private final Logger logger = LoggerFactory.getLogger(LimitRateInterceptor.class);
     private final RateLimiter rateLimiter = new RateLimiter(1000);  // save at max 1000 group/ip combination
+    private RedisRateLimiter redisRateLimiter;
 
     @Override
     public Response intercept(Invocation invocation) throws Exception {
@@ -24,7 +27,7 @@ public class LimitRateInterceptor implements Interceptor {
             String group = limitRate.value();
             String clientIP = invocation.context().request().clientIP();
             logger.debug("acquire, group={}, clientIP={}", group, clientIP);
-            boolean result = rateLimiter.acquire(group, clientIP);
+            boolean result = redisRateLimiter == null ? rateLimiter.acquire(group, clientIP) : redisRateLimiter.acquire(group, clientIP);
             if (!result) {
                 throw new TooManyRequestsException("rate exceeded");
             }
@@ -35,4 +38,10 @@ public class LimitRateInterceptor implements Interceptor {
     public void config(String group, int maxPermits, int fillRate, TimeUnit unit) {
         rateLimiter.config(group, maxPermits, fillRate, unit);
     }
+
+    // share buckets over all nodes via redis, local buckets become pre-filter
+    public RedisRateLimiter redis(Redis redis, Duration slowThreshold) {
+        redisRateLimiter = new RedisRateLimiter(redis, rateLimiter, slowThreshold);
+        return redisRateLimiter;
+    }
 }
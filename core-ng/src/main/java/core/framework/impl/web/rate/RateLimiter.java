@@ -30,6 +30,10 @@ public class RateLimiter {
         return rate / (double) unit.toNanos(1);
     }
 
+    RateConfig rateConfig(String group) {
+        return config.get(group);
+    }
+
     public boolean acquire(String group, String clientIP) {
         RateConfig config = this.config.get(group);
 
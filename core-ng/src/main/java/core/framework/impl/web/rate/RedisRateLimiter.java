@@ -0,0 +1,130 @@
+package core.framework.impl.web.rate;
+
+import core.framework.api.redis.AsyncRedis;
+import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisScript;
+import core.framework.api.util.Lists;
+import core.framework.api.util.StopWatch;
+import core.framework.impl.async.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * token bucket shared by all nodes, one atomic lua call per check, bucket is stored as hash of permits and last update time,
+ * <p>
+ * local bucket with same config is checked first, node's own requests can never exceed the shared bucket,
+ * so request rejected locally must be rejected by redis as well, and it saves network call under attack traffic,
+ * <p>
+ * it fails open, if redis call fails or does not return within threshold, redis is skipped for a while and only local bucket is used,
+ * sync redis client is called on executor to bound the wait of request thread
+ *
+ * @author neo
+ */
+public final class RedisRateLimiter {
+    static final RedisScript<Boolean> TOKEN_BUCKET = RedisScript.returnBoolean(
+        "local maxPermits = tonumber(ARGV[1])\n"
+            + "local fillRate = tonumber(ARGV[2])\n"
+            + "local now = tonumber(ARGV[3])\n"
+            + "local bucket = redis.call('hmget', KEYS[1], 'permits', 'time')\n"
+            + "local permits = tonumber(bucket[1])\n"
+            + "local time = tonumber(bucket[2])\n"
+            + "if permits == nil then\n"
+            + "  permits = maxPermits\n"
+            + "  time = now\n"
+            + "end\n"
+            + "permits = math.min(maxPermits, permits + math.max(0, now - time) * fillRate)\n"
+            + "local allowed = 0\n"
+            + "if permits >= 1 then\n"
+            + "  permits = permits - 1\n"
+            + "  allowed = 1\n"
+            + "end\n"
+            + "redis.call('hmset', KEYS[1], 'permits', permits, 'time', math.max(now, time))\n"
+            + "redis.call('pexpire', KEYS[1], math.ceil(maxPermits / fillRate))\n"
+            + "return allowed");
+    private static final long SKIP_REDIS_TIME_IN_MS = Duration.ofSeconds(10).toMillis();
+
+    public final LongAdder checks = new LongAdder();
+    public final LongAdder localRejects = new LongAdder();
+    public final LongAdder rejects = new LongAdder();
+    public final LongAdder slowChecks = new LongAdder();
+    public final LongAdder failOpens = new LongAdder();
+    private final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+    private final Redis redis;
+    private final RateLimiter localRateLimiter;
+    private final long slowThresholdInNanos;
+    private final ExecutorService executor;     // calls sync redis client, so request thread can stop waiting on slow redis
+    private volatile long skipRedisUntil;
+
+    public RedisRateLimiter(Redis redis, RateLimiter localRateLimiter, Duration slowThreshold) {
+        this.redis = redis;
+        this.localRateLimiter = localRateLimiter;
+        slowThresholdInNanos = slowThreshold.toNanos();
+        executor = redis instanceof AsyncRedis ? null : ThreadPools.cachedThreadPool(Runtime.getRuntime().availableProcessors() * 2, "rate-limiter-redis-");
+    }
+
+    public boolean acquire(String group, String clientIP) {
+        checks.increment();
+        if (!localRateLimiter.acquire(group, clientIP)) {
+            localRejects.increment();
+            return false;
+        }
+        RateLimiter.RateConfig config = localRateLimiter.rateConfig(group);
+        if (config == null) return true;
+        long now = System.currentTimeMillis();
+        if (now < skipRedisUntil) {
+            failOpens.increment();
+            return true;
+        }
+        boolean result = acquire(group, clientIP, config, now);
+        if (!result) rejects.increment();
+        return result;
+    }
+
+    // request thread waits no longer than slow threshold, timeout counts as slow check and fails open
+    private boolean acquire(String group, String clientIP, RateLimiter.RateConfig config, long now) {
+        StopWatch watch = new StopWatch();
+        CompletableFuture<Boolean> result = null;
+        try {
+            result = eval(Lists.newArrayList("rate:" + group + ":" + clientIP), config.maxPermits, config.fillRatePerNano * 1_000_000, now);
+            return result.get(slowThresholdInNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            slowChecks.increment();
+            failOpens.increment();
+            skipRedisUntil = now + SKIP_REDIS_TIME_IN_MS;
+            logger.warn("acquire rate from redis is too slow, skip redis for {}ms, group={}, clientIP={}, elapsedTime={}", SKIP_REDIS_TIME_IN_MS, group, clientIP, watch.elapsedTime());
+            return true;
+        } catch (ExecutionException e) {
+            return failOpen(group, clientIP, now, e.getCause());
+        } catch (RuntimeException e) {
+            return failOpen(group, clientIP, now, e);
+        } catch (InterruptedException e) {
+            throw new Error("interrupted during acquiring rate from redis", e);
+        }
+    }
+
+    private boolean failOpen(String group, String clientIP, long now, Throwable e) {
+        failOpens.increment();
+        skipRedisUntil = now + SKIP_REDIS_TIME_IN_MS;
+        logger.warn("failed to acquire rate from redis, skip redis for {}ms, group={}, clientIP={}, error={}", SKIP_REDIS_TIME_IN_MS, group, clientIP, e.getMessage(), e);
+        return true;
+    }
+
+    private CompletableFuture<Boolean> eval(List<String> keys, Object... args) {
+        if (executor == null) return ((AsyncRedis) redis).evalAsync(TOKEN_BUCKET, keys, args);
+        return CompletableFuture.supplyAsync(() -> redis.eval(TOKEN_BUCKET, keys, args), executor);
+    }
+
+    public void close() {
+        if (executor != null) executor.shutdown();
+    }
+}
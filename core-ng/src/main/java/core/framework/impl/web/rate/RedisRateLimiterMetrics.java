@@ -0,0 +1,40 @@
+package core.framework.impl.web.rate;
+
+import core.framework.impl.log.stat.Metrics;
+
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public final class RedisRateLimiterMetrics implements Metrics {
+    private final RedisRateLimiter rateLimiter;
+    private long previousChecks;
+    private long previousLocalRejects;
+    private long previousRejects;
+    private long previousSlowChecks;
+    private long previousFailOpens;
+
+    public RedisRateLimiterMetrics(RedisRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        long checks = rateLimiter.checks.sum();
+        long localRejects = rateLimiter.localRejects.sum();
+        long rejects = rateLimiter.rejects.sum();
+        long slowChecks = rateLimiter.slowChecks.sum();
+        long failOpens = rateLimiter.failOpens.sum();
+        stats.put("rate_limit_checks", (double) (checks - previousChecks));
+        stats.put("rate_limit_local_rejects", (double) (localRejects - previousLocalRejects));
+        stats.put("rate_limit_rejects", (double) (rejects - previousRejects));
+        stats.put("rate_limit_slow_checks", (double) (slowChecks - previousSlowChecks));
+        stats.put("rate_limit_fail_opens", (double) (failOpens - previousFailOpens));
+        previousChecks = checks;
+        previousLocalRejects = localRejects;
+        previousRejects = rejects;
+        previousSlowChecks = slowChecks;
+        previousFailOpens = failOpens;
+    }
+}
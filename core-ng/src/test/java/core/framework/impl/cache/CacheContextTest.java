@@ -0,0 +1,148 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Strings;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class CacheContextTest {
+    private CacheContext<String> context;
+
+    @Before
+    public void createCacheContext() {
+        context = new CacheContext<>(String.class);
+    }
+
+    @Test
+    public void encode() {
+        CacheEntry<String> entry = context.decode(context.encode(new CacheEntry<>("value", 1497312000000L)));
+
+        assertEquals("value", entry.value);
+        assertEquals(1497312000000L, entry.expirationTime);
+    }
+
+    @Test
+    public void encodeShared() {
+        CacheEntry<String> entry = new CacheEntry<>("value", 1497312000000L);
+        assertEquals("\"value\"", new String(context.encodeShared(entry), Charsets.UTF_8));    // readable by previous version
+        assertEquals(0, context.decode(context.encodeShared(entry)).expirationTime);
+
+        context.sharedFormatV1 = true;
+        assertEquals(CacheContext.FORMAT_V1, context.encodeShared(entry)[0]);
+        assertEquals(1497312000000L, context.decode(context.encodeShared(entry)).expirationTime);
+    }
+
+    @Test
+    public void estimateSize() {
+        CountingCodec codec = new CountingCodec(context.codec);
+        context.codec = codec;
+
+        CacheEntry<String> entry = new CacheEntry<>("value", 0);
+        int size = context.estimateSize(entry);
+        for (int i = 0; i < 63; i++) {
+            assertEquals(size, context.estimateSize(entry));
+        }
+        assertEquals(1, codec.encodes.get());
+        assertEquals(size, context.estimateSize(entry));
+        assertEquals(2, codec.encodes.get());     // sampled every 64 calls
+        assertEquals(0, context.stats.encodes.sum());
+    }
+
+    @Test
+    public void encodeWithCompression() {
+        context.compressionThreshold = 10;
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("value");
+        }
+        String value = builder.toString();
+        byte[] bytes = context.encode(new CacheEntry<>(value, 1497312000000L));
+        assertTrue(bytes.length < value.length());
+
+        CacheEntry<String> entry = context.decode(bytes);
+        assertEquals(value, entry.value);
+        assertEquals(1497312000000L, entry.expirationTime);
+    }
+
+    @Test
+    public void encodeWithSmile() {
+        CacheContext<TestValue> smileContext = new CacheContext<>(TestValue.class);
+        smileContext.codec = new SmileCacheCodec<>(TestValue.class);
+        TestValue value = new TestValue();
+        value.name = "value";
+        value.values = Arrays.asList(1, 2, 3);
+
+        byte[] bytes = smileContext.encode(new CacheEntry<>(value, 0));
+        assertEquals(SmileCacheCodec.ID, bytes[1]);
+        CacheEntry<TestValue> entry = smileContext.decode(bytes);
+        assertEquals("value", entry.value.name);
+        assertEquals(Arrays.asList(1, 2, 3), entry.value.values);
+    }
+
+    @Test
+    public void decodeJSONAfterSwitchedToSmile() {
+        byte[] bytes = context.encode(new CacheEntry<>("value", 0));
+        context.codec = new SmileCacheCodec<>(String.class);
+
+        assertEquals("value", context.decode(bytes).value);
+    }
+
+    @Test
+    public void encodeAbsent() {
+        byte[] bytes = context.encode(new CacheEntry<>(null, 1497312000000L));
+        assertEquals(10, bytes.length);
+
+        CacheEntry<String> entry = context.decode(bytes);
+        assertNull(entry.value);
+        assertEquals(1497312000000L, entry.expirationTime);
+    }
+
+    @Test
+    public void decodePlainJSON() {
+        CacheEntry<String> entry = context.decode(Strings.bytes("\"value\""));
+
+        assertEquals("value", entry.value);
+        assertEquals(0, entry.expirationTime);
+    }
+
+    public static class TestValue {
+        public String name;
+        public List<Integer> values;
+    }
+
+    static class CountingCodec implements CacheCodec<String> {
+        final AtomicInteger encodes = new AtomicInteger();
+        private final CacheCodec<String> codec;
+
+        CountingCodec(CacheCodec<String> codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        public byte id() {
+            return codec.id();
+        }
+
+        @Override
+        public byte[] encode(String value) {
+            encodes.incrementAndGet();
+            return codec.encode(value);
+        }
+
+        @Override
+        public String decode(byte[] bytes, int offset, int length) {
+            return codec.decode(bytes, offset, length);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package core.framework.impl.cache;
 
 import core.framework.api.util.Maps;
-import core.framework.api.util.Strings;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -9,10 +8,23 @@ import org.mockito.Mockito;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,7 +43,7 @@ public class CacheImplTest {
 
     @Test
     public void get() {
-        when(cacheStore.get("name:key")).thenReturn(Strings.bytes("1"));
+        when(cacheStore.get("name:key", cache.context)).thenReturn(entry(1));
 
         Integer value = cache.get("key", key -> null);
         assertEquals(1, (int) value);
@@ -39,34 +51,205 @@ public class CacheImplTest {
 
     @Test
     public void getIfMiss() {
-        when(cacheStore.get("name:key")).thenReturn(null);
+        when(cacheStore.get("name:key", cache.context)).thenReturn(null);
 
         Integer value = cache.get("key", key -> 1);
         assertEquals(1, (int) value);
 
-        verify(cacheStore).put("name:key", Strings.bytes("1"), Duration.ofHours(1));
+        verify(cacheStore).put(eq("name:key"), argThat(entry -> entry.value == 1), eq(Duration.ofHours(1)), eq(cache.context));
+    }
+
+    @Test
+    public void getOptionalIfAbsent() {
+        cache.absentExpiration = Duration.ofMinutes(5);
+
+        Optional<Integer> value = cache.getOptional("key", key -> Optional.empty());
+        assertFalse(value.isPresent());
+        verify(cacheStore).put(eq("name:key"), argThat(entry -> entry.value == null), eq(Duration.ofMinutes(5)), eq(cache.context));
+    }
+
+    @Test
+    public void getOptionalWithCachedAbsent() {
+        when(cacheStore.get("name:key", cache.context)).thenReturn(new CacheEntry<>(null, System.currentTimeMillis() + Duration.ofMinutes(5).toMillis()));
+
+        Optional<Integer> value = cache.getOptional("key", key -> {
+            throw new Error("loader should not be called");
+        });
+        assertFalse(value.isPresent());
+    }
+
+    @Test
+    public void getIfAbsentWithoutCacheAbsent() {
+        assertNull(cache.get("key", key -> null));
+        verify(cacheStore, never()).put(any(), any(), any(), any());
+    }
+
+    @Test
+    public void getWithConcurrentMisses() throws Exception {
+        cache = new CacheImpl<>("name", Integer.class, Duration.ofHours(1), new LocalCacheStore());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> cache.get("key", key -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(loaded);
+                return 1;
+            }));
+            await(loading);
+            Thread waiter = new Thread(loaded::countDown);
+            waiter.start();
+
+            assertEquals(1, (int) cache.get("key", key -> loads.incrementAndGet()));
+            assertEquals(1, (int) first.get());
+            assertEquals(1, loads.get());
+            assertTrue(cache.loadings.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void getWithLockedByOtherNode() {
+        cache.lockExpiration = Duration.ofSeconds(1);
+        when(cacheStore.get("name:key", cache.context)).thenReturn(null).thenReturn(entry(2));
+        when(cacheStore.lock("name:key", Duration.ofSeconds(1))).thenReturn(null);
+
+        Integer value = cache.get("key", key -> 1);
+        assertEquals(2, (int) value);
+        verify(cacheStore, never()).put(any(), any(), any(), any());
+        verify(cacheStore, never()).unlock(eq("name:key"), any());
+    }
+
+    @Test
+    public void getWithLock() {
+        cache.lockExpiration = Duration.ofSeconds(1);
+        when(cacheStore.lock("name:key", Duration.ofSeconds(1))).thenReturn("token");
+
+        Integer value = cache.get("key", key -> 1);
+        assertEquals(1, (int) value);
+        verify(cacheStore).unlock("name:key", "token");
+    }
+
+    @Test
+    public void getStale() throws InterruptedException {
+        cache.refreshAfter = Duration.ofMinutes(10);
+        cache.refreshExecutor = Executors.newSingleThreadExecutor();
+        when(cacheStore.get("name:key", cache.context)).thenReturn(new CacheEntry<>(1, System.currentTimeMillis() + Duration.ofMinutes(30).toMillis()));
+
+        Integer value = cache.get("key", key -> 2);
+        assertEquals(1, (int) value);
+
+        cache.refreshExecutor.shutdown();
+        assertTrue(cache.refreshExecutor.awaitTermination(10, TimeUnit.SECONDS));
+        verify(cacheStore).put(eq("name:key"), argThat(entry -> entry.value == 2), eq(Duration.ofHours(1)), eq(cache.context));
+        assertTrue(cache.loadings.isEmpty());
+    }
+
+    @Test
+    public void getWithoutExpirationTime() {
+        cache.refreshAfter = Duration.ofMinutes(10);
+        when(cacheStore.get("name:key", cache.context)).thenReturn(new CacheEntry<>(1, 0));     // plain json written to redis before cache().formatV1()
+
+        Integer value = cache.get("key", key -> 2);
+        assertEquals(1, (int) value);
+        verify(cacheStore, never()).put(anyString(), any(), any(), any());
+    }
+
+    @Test
+    public void getAllStale() throws InterruptedException {
+        cache.refreshAfter = Duration.ofMinutes(10);
+        cache.refreshExecutor = Executors.newSingleThreadExecutor();
+        Map<String, CacheEntry<Integer>> values = Maps.newHashMap();
+        values.put("name:key1", new CacheEntry<>(1, System.currentTimeMillis() + Duration.ofMinutes(30).toMillis()));
+        values.put("name:key2", entry(2));
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2"}, cache.context)).thenReturn(values);
+
+        Map<String, Integer> results = cache.getAll(Arrays.asList("key1", "key2"), key -> 3);
+        assertEquals(1, results.get("key1").intValue());
+        assertEquals(2, results.get("key2").intValue());
+
+        cache.refreshExecutor.shutdown();
+        assertTrue(cache.refreshExecutor.awaitTermination(10, TimeUnit.SECONDS));
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && argument.get("name:key1").value == 3), eq(Duration.ofHours(1)), eq(cache.context));
+    }
+
+    @Test
+    public void getJSON() {
+        when(cacheStore.get("name:key", cache.context)).thenReturn(entry(1));
+
+        Optional<String> value = cache.get("key");
+        assertEquals("1", value.get());
     }
 
     @Test
     public void put() {
         cache.put("key", 1);
 
-        verify(cacheStore).put("name:key", Strings.bytes("1"), Duration.ofHours(1));
+        verify(cacheStore).put(eq("name:key"), argThat(entry -> entry.value == 1 && entry.expirationTime > 0), eq(Duration.ofHours(1)), eq(cache.context));
     }
 
     @Test
     public void getAll() {
-        Map<String, byte[]> values = Maps.newHashMap();
-        values.put("name:key1", Strings.bytes("1"));
-        values.put("name:key3", Strings.bytes("3"));
-        when(cacheStore.getAll(new String[]{"name:key1", "name:key2", "name:key3"})).thenReturn(values);
+        Map<String, CacheEntry<Integer>> values = Maps.newHashMap();
+        values.put("name:key1", entry(1));
+        values.put("name:key3", entry(3));
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2", "name:key3"}, cache.context)).thenReturn(values);
 
         Map<String, Integer> results = cache.getAll(Arrays.asList("key1", "key2", "key3"), key -> 2);
         assertEquals(3, results.size());
         assertEquals(1, results.get("key1").intValue());
         assertEquals(2, results.get("key2").intValue());
         assertEquals(3, results.get("key3").intValue());
+        assertEquals(Arrays.asList("key1", "key2", "key3"), Arrays.asList(results.keySet().toArray()));
+
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && argument.get("name:key2").value == 2), eq(Duration.ofHours(1)), eq(cache.context));
+        assertTrue(cache.loadings.isEmpty());
+    }
+
+    @Test
+    public void getAllInBatch() {
+        Map<String, CacheEntry<Integer>> values = Maps.newHashMap();
+        values.put("name:key2", entry(2));
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2", "name:key3"}, cache.context)).thenReturn(values);
+        AtomicInteger loads = new AtomicInteger();
+
+        Map<String, Integer> results = cache.getAllInBatch(Arrays.asList("key1", "key2", "key3"), keys -> {
+            loads.incrementAndGet();
+            assertEquals(2, keys.size());
+            Map<String, Integer> loadedValues = Maps.newHashMap();
+            loadedValues.put("key1", 1);
+            return loadedValues;
+        });
+        assertEquals(1, loads.get());
+        assertEquals(Arrays.asList("key1", "key2", "key3"), Arrays.asList(results.keySet().toArray()));
+        assertEquals(1, results.get("key1").intValue());
+        assertEquals(2, results.get("key2").intValue());
+        assertNull(results.get("key3"));
+
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && argument.get("name:key1").value == 1), eq(Duration.ofHours(1)), eq(cache.context));
+    }
+
+    @Test
+    public void refreshEarly() {
+        long now = System.currentTimeMillis();
+        assertFalse(CacheImpl.refreshEarly(now + 60_000, now, 10, 0.5));
+        assertTrue(CacheImpl.refreshEarly(now + 5, now, 10, 0.5));
+        assertTrue(CacheImpl.refreshEarly(now, now, 10, 1));
+        assertFalse(CacheImpl.refreshEarly(now + 1, now, 10, 1));
+    }
+
+    private CacheEntry<Integer> entry(int value) {
+        return new CacheEntry<>(value, System.currentTimeMillis() + Duration.ofHours(1).toMillis());
+    }
 
-        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && Arrays.equals(argument.get("name:key2"), Strings.bytes("2"))), eq(Duration.ofHours(1)));
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Maps;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author neo
+ */
+public class CacheMetricsTest {
+    private CacheMetrics metrics;
+    private CacheImpl<String> cache;
+
+    @Before
+    public void createCacheMetrics() {
+        CacheManager cacheManager = new CacheManager(new LocalCacheStore());
+        cache = cacheManager.add("test", String.class, Duration.ofHours(1));
+        metrics = new CacheMetrics(cacheManager);
+    }
+
+    @Test
+    public void collect() {
+        cache.get("key", key -> "value");
+        cache.get("key", key -> "value");
+
+        Map<String, Double> stats = Maps.newHashMap();
+        metrics.collect(stats);
+        assertEquals(1, stats.get("cache_test_hits"), 0);
+        assertEquals(1, stats.get("cache_test_misses"), 0);
+        assertEquals(1, stats.get("cache_test_loads"), 0);
+        assertEquals(0, stats.get("cache_test_evictions"), 0);
+
+        stats = Maps.newHashMap();
+        metrics.collect(stats);
+        assertEquals(0, stats.get("cache_test_hits"), 0);
+        assertEquals(0, stats.get("cache_test_loads"), 0);
+        assertFalse(stats.containsKey("cache_test_load_time_avg"));
+    }
+}
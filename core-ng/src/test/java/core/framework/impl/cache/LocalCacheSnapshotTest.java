@@ -0,0 +1,44 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Lists;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author neo
+ */
+public class LocalCacheSnapshotTest {
+    @Test
+    public void saveAndLoadAcrossBuffer() throws IOException {
+        List<LocalCacheSnapshot.Entry> entries = Lists.newArrayList();
+        for (int i = 0; i < 5000; i++) {
+            entries.add(new LocalCacheSnapshot.Entry("key" + i, new byte[300], i, 60000));
+        }
+        byte[] largeValue = new byte[3 * 1024 * 1024];    // larger than write buffer
+        largeValue[largeValue.length - 1] = 1;
+        entries.add(new LocalCacheSnapshot.Entry("large", largeValue, 1, 60000));
+
+        Path path = Files.createTempFile("local-cache", ".snapshot");
+        try {
+            LocalCacheSnapshot snapshot = new LocalCacheSnapshot(path);
+            snapshot.save(entries);
+
+            List<LocalCacheSnapshot.Entry> loadedEntries = snapshot.load();
+            assertEquals(entries.size(), loadedEntries.size());
+            assertEquals("key4999", loadedEntries.get(4999).key());
+            assertEquals(4999, loadedEntries.get(4999).expirationTime);
+            LocalCacheSnapshot.Entry large = loadedEntries.get(5000);
+            assertEquals("large", large.key());
+            assertArrayEquals(largeValue, large.value);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -3,25 +3,219 @@ package core.framework.impl.cache;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author neo
  */
 public class LocalCacheStoreTest {
     LocalCacheStore cacheStore;
+    CacheContext<String> context;
 
     @Before
     public void createLocalCacheStore() {
         cacheStore = new LocalCacheStore();
+        context = new CacheContext<>(String.class);
+    }
+
+    @Test
+    public void get() {
+        cacheStore.put("key", entry("1"), Duration.ofMinutes(1), context);
+
+        assertEquals("1", cacheStore.get("key", context).value);
+        assertNull(cacheStore.get("notExistedKey", context));
     }
 
     @Test
     public void getAll() {
-        Map<String, byte[]> values = cacheStore.getAll(new String[]{"key1", "key2"});
+        Map<String, CacheEntry<String>> values = cacheStore.getAll(new String[]{"key1", "key2"}, context);
         assertNull(values.get("key1"));
         assertNull(values.get("key2"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getExpired() {
+        cacheStore.put("key", entry("1"), Duration.ZERO, context);
+
+        assertNull(cacheStore.get("key", context));
+        assertEquals(0, cacheStore.size());
+        assertEquals(0, cacheStore.bytes.get());
+    }
+
+    @Test
+    public void put() {
+        cacheStore.put("key", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.put("key", entry("2"), Duration.ofMinutes(1), context);
+
+        assertEquals("2", cacheStore.get("key", context).value);
+        assertEquals(1, cacheStore.size());
+        assertEquals(1, cacheStore.probationQueue.size + cacheStore.protectedQueue.size);
+    }
+
+    @Test
+    public void putRemovesExpiredItems() {
+        cacheStore.put("key1", entry("1"), Duration.ZERO, context);
+        cacheStore.put("key2", entry("2"), Duration.ofMinutes(1), context);
+
+        assertEquals(1, cacheStore.size());
+        assertNotNull(cacheStore.get("key2", context));
+    }
+
+    @Test
+    public void delete() {
+        cacheStore.put("key", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.delete("key");
+
+        assertNull(cacheStore.get("key", context));
+        assertEquals(0, cacheStore.bytes.get());
+    }
+
+    @Test
+    public void deleteByPrefix() {
+        cacheStore.put("cache1:key1", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.put("cache1:key2", entry("2"), Duration.ofMinutes(1), context);
+        cacheStore.put("cache2:key1", entry("3"), Duration.ofMinutes(1), context);
+
+        assertEquals(2, cacheStore.deleteByPrefix("cache1:"));
+        assertEquals(1, cacheStore.size());
+        assertNotNull(cacheStore.get("cache2:key1", context));
+    }
+
+    @Test
+    public void evictByMaxSize() {
+        cacheStore.maxSize = 2;
+        cacheStore.put("key1", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.put("key2", entry("2"), Duration.ofMinutes(1), context);
+        cacheStore.put("key3", entry("3"), Duration.ofMinutes(1), context);
+
+        assertEquals(2, cacheStore.size());
+        assertNull(cacheStore.get("key1", context));
+        assertEquals(1, cacheStore.evictions.get());
+    }
+
+    @Test
+    public void evictByMaxBytes() {
+        cacheStore.put("key1", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.maxBytes = cacheStore.bytes.get();
+        cacheStore.put("key2", entry("2"), Duration.ofMinutes(1), context);
+
+        assertEquals(1, cacheStore.size());
+        assertNotNull(cacheStore.get("key2", context));
+    }
+
+    @Test
+    public void keepFrequentlyUsedItemsDuringScan() {
+        cacheStore.maxSize = 10;
+        cacheStore.put("hot", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.get("hot", context);      // promote to protected segment
+
+        for (int i = 0; i < 100; i++) {
+            cacheStore.put("key" + i, entry(String.valueOf(i)), Duration.ofMinutes(1), context);
+        }
+
+        assertEquals(10, cacheStore.size());
+        assertNotNull(cacheStore.get("hot", context));
+    }
+
+    @Test
+    public void getImmutable() {
+        CacheContext<TestValue> immutableContext = new CacheContext<>(TestValue.class);
+        immutableContext.immutable = true;
+        TestValue value = new TestValue();
+        value.name = "value";
+        cacheStore.put("key", new CacheEntry<>(value, 0), Duration.ofMinutes(1), immutableContext);
+
+        assertSame(value, cacheStore.get("key", immutableContext).value);
+    }
+
+    @Test
+    public void clear() {
+        cacheStore.put("key1", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.put("key2", entry("2"), Duration.ofMinutes(1), context);
+        cacheStore.clear();
+
+        assertEquals(0, cacheStore.size());
+        assertEquals(0, cacheStore.bytes.get());
+        assertNull(cacheStore.probationQueue.head);
+    }
+
+    @Test
+    public void cleanup() {
+        cacheStore.put("key", entry("1"), Duration.ZERO, context);
+        cacheStore.cleanup();
+
+        assertEquals(0, cacheStore.size());
+    }
+
+    @Test
+    public void snapshot() throws IOException {
+        CacheContext<TestValue> immutableContext = new CacheContext<>(TestValue.class);
+        immutableContext.immutable = true;
+        TestValue value = new TestValue();
+        value.name = "value";
+        cacheStore.put("key1", entry("1"), Duration.ofMinutes(1), context);
+        cacheStore.put("key2", new CacheEntry<>(value, 0), Duration.ofHours(1), immutableContext);
+        cacheStore.put("key3", entry("3"), Duration.ZERO, context);
+
+        Path path = Files.createTempFile("local-cache", ".snapshot");
+        try {
+            cacheStore.saveSnapshot(path);
+
+            LocalCacheStore loadedCacheStore = new LocalCacheStore();
+            loadedCacheStore.loadSnapshot(path);
+            assertEquals(2, loadedCacheStore.size());
+            assertEquals("1", loadedCacheStore.get("key1", context).value);
+            CacheEntry<TestValue> entry = loadedCacheStore.get("key2", immutableContext);
+            assertEquals("value", entry.value.name);
+            assertSame(entry, loadedCacheStore.get("key2", immutableContext));
+            assertFalse(Files.exists(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void getFromSnapshotWithChangedValueType() throws IOException {
+        cacheStore.put("key", entry("1"), Duration.ofMinutes(1), context);
+
+        Path path = Files.createTempFile("local-cache", ".snapshot");
+        try {
+            cacheStore.saveSnapshot(path);
+
+            LocalCacheStore loadedCacheStore = new LocalCacheStore();
+            loadedCacheStore.loadSnapshot(path);
+            CacheContext<TestValue> changedContext = new CacheContext<>(TestValue.class);
+            assertNull(loadedCacheStore.get("key", changedContext));
+            assertEquals(0, loadedCacheStore.size());
+            assertEquals(0, loadedCacheStore.bytes.get());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void loadSnapshotNotFound() {
+        cacheStore.loadSnapshot(Paths.get("not-existed-local-cache.snapshot"));
+
+        assertEquals(0, cacheStore.size());
+    }
+
+    private CacheEntry<String> entry(String value) {
+        return new CacheEntry<>(value, 0);
+    }
+
+    public static class TestValue {
+        public String name;
+    }
+}
@@ -0,0 +1,126 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Maps;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+public class RedisLocalCacheStoreTest {
+    private RedisLocalCacheStore cacheStore;
+    private LocalCacheStore localCache;
+    private CacheStore remoteCache;
+    private LocalCacheInvalidator invalidator;
+    private CacheContext<String> context;
+    private CacheEntry<String> entry;
+
+    @Before
+    public void createRedisLocalCacheStore() {
+        localCache = new LocalCacheStore();
+        remoteCache = Mockito.mock(CacheStore.class);
+        invalidator = Mockito.mock(LocalCacheInvalidator.class);
+        cacheStore = new RedisLocalCacheStore(localCache, remoteCache, invalidator, Duration.ofMinutes(1));
+        context = new CacheContext<>(String.class);
+        entry = new CacheEntry<>("1", 0);
+    }
+
+    @Test
+    public void getFromLocal() {
+        localCache.put("key", entry, Duration.ofMinutes(1), context);
+
+        assertEquals("1", cacheStore.get("key", context).value);
+        verify(remoteCache, never()).get(any(), any());
+        assertEquals(1, cacheStore.localHitRate(), 0);
+    }
+
+    @Test
+    public void getFromRemote() {
+        when(remoteCache.get("key", context)).thenReturn(entry);
+
+        assertEquals("1", cacheStore.get("key", context).value);
+        assertEquals("1", localCache.get("key", context).value);
+        assertEquals(1, cacheStore.remoteHitRate(), 0);
+    }
+
+    @Test
+    public void getFromRemoteExpiredInRedis() {
+        when(remoteCache.get("key", context)).thenReturn(new CacheEntry<>("1", System.currentTimeMillis() - 1));
+
+        assertEquals("1", cacheStore.get("key", context).value);
+        assertNull(localCache.get("key", context));
+    }
+
+    @Test
+    public void getFromRemoteInvalidatedDuringRead() {
+        when(remoteCache.get("key", context)).thenAnswer(invocation -> {
+            localCache.delete("key");   // invalidation message arrives before remote read returns
+            return entry;
+        });
+
+        assertEquals("1", cacheStore.get("key", context).value);
+        assertNull(localCache.get("key", context));
+    }
+
+    @Test
+    public void getIfMiss() {
+        assertNull(cacheStore.get("key", context));
+        assertEquals(0, cacheStore.localHitRate(), 0);
+        assertEquals(0, cacheStore.remoteHitRate(), 0);
+    }
+
+    @Test
+    public void getAll() {
+        localCache.put("key1", entry, Duration.ofMinutes(1), context);
+        Map<String, CacheEntry<String>> remoteValues = Maps.newHashMap();
+        remoteValues.put("key2", new CacheEntry<>("2", 0));
+        when(remoteCache.getAll(new String[]{"key2", "key3"}, context)).thenReturn(remoteValues);
+
+        Map<String, CacheEntry<String>> values = cacheStore.getAll(new String[]{"key1", "key2", "key3"}, context);
+        assertEquals(2, values.size());
+        assertEquals("2", localCache.get("key2", context).value);
+        assertEquals(1 / 3d, cacheStore.localHitRate(), 0.001);
+        assertEquals(1 / 3d, cacheStore.remoteHitRate(), 0.001);
+    }
+
+    @Test
+    public void put() {
+        cacheStore.put("key", entry, Duration.ofHours(1), context);
+
+        verify(remoteCache).put("key", entry, Duration.ofHours(1), context);
+        assertEquals("1", localCache.get("key", context).value);
+        verify(invalidator).invalidate(Collections.singletonList("key"));
+    }
+
+    @Test
+    public void deleteByPrefix() {
+        localCache.put("cache:key", entry, Duration.ofMinutes(1), context);
+        when(remoteCache.deleteByPrefix("cache:")).thenReturn(2L);
+
+        assertEquals(2, cacheStore.deleteByPrefix("cache:"));
+        assertNull(localCache.get("cache:key", context));
+        verify(invalidator).invalidateByPrefix("cache:");
+    }
+
+    @Test
+    public void delete() {
+        localCache.put("key", entry, Duration.ofMinutes(1), context);
+        cacheStore.delete("key");
+
+        verify(remoteCache).delete("key");
+        assertNull(localCache.get("key", context));
+        verify(invalidator).invalidate(Collections.singletonList("key"));
+    }
+}
@@ -1,6 +1,7 @@
 package core.framework.impl.db;
 
 import core.framework.api.db.Transaction;
+import core.framework.api.util.Lists;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -11,6 +12,7 @@ import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -38,6 +40,18 @@ public class DatabaseImplTest {
         database.execute("TRUNCATE TABLE database_test");
     }
 
+    @Test
+    public void reuseCachedStatement() {
+        database.execute("INSERT INTO database_test VALUES (?, ?, ?)", 1, "string", TestEnum.V1);
+        long hits = database.operation.statementCacheStats.hits.sum();
+
+        database.selectOne("SELECT string_field FROM database_test where id = ?", String.class, 1);
+        database.selectOne("SELECT string_field FROM database_test where id = ?", String.class, 1);
+
+        assertEquals(hits + 1, database.operation.statementCacheStats.hits.sum());
+        assertFalse(database.operation.statementCaches.isEmpty());
+    }
+
     @Test
     public void selectOneWithView() {
         database.execute("INSERT INTO database_test VALUES (?, ?, ?)", 1, "string", TestEnum.V1);
@@ -60,6 +74,29 @@ public class DatabaseImplTest {
         assertEquals(TestEnum.V2, views.get(1).enumField);
     }
 
+    @Test
+    public void forEachWithView() {
+        database.execute("INSERT INTO database_test VALUES (?, ?, ?)", 1, "string1", TestEnum.V1);
+        database.execute("INSERT INTO database_test VALUES (?, ?, ?)", 2, "string2", TestEnum.V2);
+
+        List<EntityView> views = Lists.newArrayList();
+        database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test ORDER BY id", EntityView.class, views::add);
+
+        assertEquals(2, views.size());
+        assertEquals("string1", views.get(0).stringField);
+        assertEquals(TestEnum.V2, views.get(1).enumField);
+    }
+
+    @Test
+    public void selectWithViewPartialColumns() {
+        database.execute("INSERT INTO database_test VALUES (?, ?, ?)", 1, "string", TestEnum.V1);
+
+        EntityView view = database.selectOne("SELECT enum_field as ENUM_LABEL FROM database_test where id = ?", EntityView.class, 1).get();
+
+        assertEquals(TestEnum.V1, view.enumField);
+        assertNull(view.stringField);
+    }
+
     @Test
     public void selectEmptyWithView() {
         List<EntityView> views = database.select("SELECT string_field, enum_field FROM database_test where id = -1", EntityView.class);
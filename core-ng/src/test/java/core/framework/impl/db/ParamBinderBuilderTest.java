@@ -0,0 +1,54 @@
+package core.framework.impl.db;
+
+import core.framework.impl.reflect.Classes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author neo
+ */
+public class ParamBinderBuilderTest {
+    @Test
+    public void bind() throws SQLException {
+        ParamBinder<AutoIncrementIdEntity> binder = new ParamBinderBuilder<>(AutoIncrementIdEntity.class, Classes.instanceFields(AutoIncrementIdEntity.class)).build();
+
+        AutoIncrementIdEntity entity = new AutoIncrementIdEntity();
+        entity.id = 1;
+        entity.stringField = "value";
+        entity.enumField = TestEnum.V2;
+        entity.dateTimeField = LocalDateTime.of(2017, 6, 1, 12, 0);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        binder.bind(statement, entity, 0);
+
+        verify(statement).setInt(1, 1);
+        verify(statement).setString(2, "value");
+        verify(statement).setObject(3, null);
+        verify(statement).setString(4, "DB_V2");
+        verify(statement).setTimestamp(5, Timestamp.valueOf(entity.dateTimeField));
+        verify(statement).setObject(6, null);
+    }
+
+    @Test
+    public void bindWithOffset() throws SQLException {
+        ParamBinder<AssignedIdEntity> binder = new ParamBinderBuilder<>(AssignedIdEntity.class, Classes.instanceFields(AssignedIdEntity.class)).build();
+
+        AssignedIdEntity entity = new AssignedIdEntity();
+        entity.id = "id";
+        entity.intField = 2;
+        PreparedStatement statement = mock(PreparedStatement.class);
+        binder.bind(statement, entity, 5);
+
+        verify(statement).setString(6, "id");
+        verify(statement).setObject(7, null);
+        verify(statement).setInt(8, 2);
+        Assert.assertEquals(5 * 4 + 2 + 24, binder.estimateSize(entity));
+    }
+}
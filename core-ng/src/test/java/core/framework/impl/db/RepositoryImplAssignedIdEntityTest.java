@@ -1,5 +1,6 @@
 package core.framework.impl.db;
 
+import core.framework.api.db.Query;
 import core.framework.api.db.Repository;
 import core.framework.api.util.Lists;
 import org.junit.AfterClass;
@@ -11,6 +12,7 @@ import org.junit.Test;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -115,6 +117,91 @@ public class RepositoryImplAssignedIdEntityTest {
         Assert.assertEquals(entity2.stringField, selectedEntity2.stringField);
     }
 
+    @Test
+    public void batchInsertWithRewriteInChunks() {
+        database.batchSize(2, 1024);
+        database.rewriteBatch(true);
+        try {
+            List<AssignedIdEntity> entities = Lists.newArrayList();
+            for (int i = 0; i < 5; i++) {
+                AssignedIdEntity entity = new AssignedIdEntity();
+                entity.id = "rewrite-" + i;
+                entity.stringField = "value" + i;
+                entity.intField = i;
+                entities.add(entity);
+            }
+            long cachedStatements = database.operation.statementCacheStats.hits.sum() + database.operation.statementCacheStats.misses.sum();
+            repository.batchInsert(entities);
+            Assert.assertEquals("multi-row statements should not be cached", cachedStatements, database.operation.statementCacheStats.hits.sum() + database.operation.statementCacheStats.misses.sum());
+
+            Assert.assertEquals(5, repository.select("id LIKE ?", "rewrite-%").size());
+            Assert.assertEquals("value4", repository.get("rewrite-4").get().stringField);
+        } finally {
+            database.batchSize(1000, 1024 * 1024);
+            database.rewriteBatch(false);
+        }
+    }
+
+    @Test
+    public void batchUpdate() {
+        AssignedIdEntity entity1 = new AssignedIdEntity();
+        entity1.id = "7";
+        entity1.stringField = "value1";
+        entity1.intField = 11;
+        AssignedIdEntity entity2 = new AssignedIdEntity();
+        entity2.id = "8";
+        entity2.stringField = "value2";
+        entity2.intField = 12;
+        repository.batchInsert(Lists.newArrayList(entity1, entity2));
+
+        entity1.intField = 21;
+        entity2.stringField = null;
+        repository.batchUpdate(Lists.newArrayList(entity1, entity2));
+
+        Assert.assertEquals(Integer.valueOf(21), repository.get("7").get().intField);
+        Assert.assertNull(repository.get("8").get().stringField);
+    }
+
+    @Test
+    public void batchUpsert() {
+        AssignedIdEntity entity1 = new AssignedIdEntity();
+        entity1.id = "9";
+        entity1.stringField = "value1";
+        entity1.intField = 11;
+        repository.insert(entity1);
+
+        entity1.stringField = "updated1";
+        AssignedIdEntity entity2 = new AssignedIdEntity();
+        entity2.id = "10";
+        entity2.stringField = "value2";
+        entity2.intField = 12;
+        repository.batchUpsert(Lists.newArrayList(entity1, entity2));
+
+        Assert.assertEquals("updated1", repository.get("9").get().stringField);
+        Assert.assertEquals("value2", repository.get("10").get().stringField);
+    }
+
+    @Test
+    public void forEach() {
+        AssignedIdEntity entity1 = new AssignedIdEntity();
+        entity1.id = "5";
+        entity1.intField = 21;
+        AssignedIdEntity entity2 = new AssignedIdEntity();
+        entity2.id = "6";
+        entity2.intField = 22;
+        repository.batchInsert(Lists.newArrayList(entity1, entity2));
+
+        Query query = new Query();
+        query.where = "int_field > ?";
+        query.params = new Object[]{20};
+        List<String> ids = Lists.newArrayList();
+        repository.forEach(query, entity -> ids.add(entity.id));
+
+        Assert.assertEquals(2, ids.size());
+        Assert.assertTrue(ids.contains("5"));
+        Assert.assertTrue(ids.contains("6"));
+    }
+
     @Test
     public void batchDelete() {
         AssignedIdEntity entity1 = new AssignedIdEntity();
@@ -85,4 +85,29 @@ public class RepositoryImplCompositeKeyEntityTest {
         Assert.assertFalse(repository.get(entity1.id1, entity1.id2).isPresent());
         Assert.assertFalse(repository.get(entity2.id1, entity2.id2).isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void batchUpsertWithRewrite() {
+        database.rewriteBatch(true);
+        try {
+            CompositeKeyEntity entity1 = new CompositeKeyEntity();
+            entity1.id1 = "2-1";
+            entity1.id2 = "2-2";
+            entity1.booleanField = true;
+            entity1.longField = 1L;
+            repository.insert(entity1);
+
+            entity1.longField = 2L;
+            CompositeKeyEntity entity2 = new CompositeKeyEntity();
+            entity2.id1 = "2-1";
+            entity2.id2 = "2-3";
+            entity2.booleanField = false;
+            repository.batchUpsert(Lists.newArrayList(entity1, entity2));
+
+            Assert.assertEquals(Long.valueOf(2), repository.get(entity1.id1, entity1.id2).get().longField);
+            Assert.assertFalse(repository.get(entity2.id1, entity2.id2).get().booleanField);
+        } finally {
+            database.rewriteBatch(false);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package core.framework.impl.db;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Statement;
+
+/**
+ * @author neo
+ */
+public class RepositoryImplTest {
+    @Test
+    public void affectedRows() {
+        Assert.assertEquals(3, RepositoryImpl.affectedRows(new int[]{1, 2, 0}));
+        Assert.assertEquals(0, RepositoryImpl.affectedRows(new int[0]));
+    }
+
+    @Test
+    public void affectedRowsWithSuccessNoInfo() {
+        Assert.assertEquals(-1, RepositoryImpl.affectedRows(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}));
+        Assert.assertEquals(-1, RepositoryImpl.affectedRows(new int[]{1, Statement.SUCCESS_NO_INFO}));
+    }
+}
@@ -0,0 +1,65 @@
+package core.framework.impl.db;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+public class StatementCacheTest {
+    private StatementCache cache;
+    private StatementCacheStats stats;
+
+    @Before
+    public void createStatementCache() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        when(connection.prepareStatement(anyString(), anyInt())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        stats = new StatementCacheStats();
+        cache = new StatementCache(connection, 2, stats);
+    }
+
+    @Test
+    public void statement() throws SQLException {
+        PreparedStatement statement = cache.statement("sql1");
+        assertSame(statement, cache.statement("sql1"));
+        assertNotSame(statement, cache.insertStatement("sql1"));
+
+        assertEquals(1, stats.hits.sum());
+        assertEquals(2, stats.misses.sum());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws SQLException {
+        PreparedStatement statement1 = cache.statement("sql1");
+        PreparedStatement statement2 = cache.statement("sql2");
+        cache.statement("sql1");
+        cache.statement("sql3");
+
+        verify(statement2).close();
+        assertEquals(1, stats.evictions.sum());
+        assertSame(statement1, cache.statement("sql1"));
+    }
+
+    @Test
+    public void evict() throws SQLException {
+        PreparedStatement statement = cache.statement("sql1");
+        cache.evict("sql1", statement);
+
+        verify(statement).close();
+        assertNotSame(statement, cache.statement("sql1"));
+    }
+}
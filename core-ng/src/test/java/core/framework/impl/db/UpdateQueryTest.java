@@ -0,0 +1,39 @@
+package core.framework.impl.db;
+
+import core.framework.api.db.Column;
+import core.framework.api.db.PrimaryKey;
+import core.framework.api.db.Table;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author neo
+ */
+public class UpdateQueryTest {
+    @Test
+    public void batchSQL() {
+        UpdateQuery<CompositeKeyEntity> query = new UpdateQuery<>(CompositeKeyEntity.class);
+        assertEquals("UPDATE composite_key_entity SET boolean_field = ?, long_field = ? WHERE id1 = ? AND id2 = ?", query.batchSQL());
+    }
+
+    @Test
+    public void batchSQLWithOnlyPrimaryKey() {
+        UpdateQuery<KeyOnlyEntity> query = new UpdateQuery<>(KeyOnlyEntity.class);
+        try {
+            query.batchSQL();
+            fail("entity with only primary key columns can not be batch updated");
+        } catch (Error e) {
+            assertTrue(e.getMessage().contains("only primary key columns"));
+        }
+    }
+
+    @Table(name = "key_only_entity")
+    public static class KeyOnlyEntity {
+        @PrimaryKey
+        @Column(name = "id")
+        public String id;
+    }
+}
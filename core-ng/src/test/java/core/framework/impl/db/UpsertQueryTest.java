@@ -0,0 +1,31 @@
+package core.framework.impl.db;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author neo
+ */
+public class UpsertQueryTest {
+    private final UpsertQuery<CompositeKeyEntity> query = new UpsertQuery<>(CompositeKeyEntity.class);
+
+    @Test
+    public void mysqlSQL() {
+        Assert.assertEquals("INSERT INTO composite_key_entity (id1, id2, boolean_field, long_field) VALUES (?, ?, ?, ?), (?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE boolean_field = VALUES(boolean_field), long_field = VALUES(long_field)", query.sql(Dialect.MYSQL, 2));
+    }
+
+    @Test
+    public void hsqldbSQL() {
+        Assert.assertEquals("MERGE INTO composite_key_entity t USING (VALUES (?, ?, CAST(? AS BOOLEAN), ?)) s (id1, id2, boolean_field, long_field) ON (t.id1 = s.id1 AND t.id2 = s.id2)"
+                + " WHEN MATCHED THEN UPDATE SET t.boolean_field = s.boolean_field, t.long_field = s.long_field"
+                + " WHEN NOT MATCHED THEN INSERT (id1, id2, boolean_field, long_field) VALUES (s.id1, s.id2, s.boolean_field, s.long_field)", query.sql(Dialect.HSQLDB, 1));
+    }
+
+    @Test
+    public void oracleSQL() {
+        Assert.assertEquals("MERGE INTO composite_key_entity t USING (SELECT ? id1, ? id2, ? boolean_field, ? long_field FROM dual) s ON (t.id1 = s.id1 AND t.id2 = s.id2)"
+                + " WHEN MATCHED THEN UPDATE SET t.boolean_field = s.boolean_field, t.long_field = s.long_field"
+                + " WHEN NOT MATCHED THEN INSERT (id1, id2, boolean_field, long_field) VALUES (s.id1, s.id2, s.boolean_field, s.long_field)", query.sql(Dialect.ORACLE, 1));
+    }
+}
@@ -0,0 +1,31 @@
+package core.framework.impl.log.stat;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author neo
+ */
+public class HistogramTest {
+    @Test
+    public void record() {
+        Histogram histogram = new Histogram(1, 10, 100);
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(5);
+        histogram.record(1000);
+
+        assertArrayEquals(new long[]{2, 1, 0, 1}, histogram.counts());
+    }
+
+    @Test
+    public void percentile() {
+        Histogram histogram = new Histogram(1, 10, 100);
+
+        assertEquals(1, histogram.percentile(new long[]{99, 1, 0, 0}, 0.99));
+        assertEquals(10, histogram.percentile(new long[]{98, 2, 0, 0}, 0.99));
+        assertEquals(-1, histogram.percentile(new long[]{0, 0, 0, 1}, 0.99));
+    }
+}
@@ -0,0 +1,316 @@
+package core.framework.impl.redis;
+
+import core.framework.api.redis.RedisBatch;
+import core.framework.api.redis.RedisScript;
+import core.framework.api.util.Maps;
+import core.framework.api.util.Strings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author neo
+ */
+public class MultiplexedRedisImplTest {
+    private FakeRedisServer server;
+    private MultiplexedRedisImpl redis;
+
+    @Before
+    public void createMultiplexedRedis() throws IOException {
+        server = new FakeRedisServer();
+        server.start();
+        redis = new MultiplexedRedisImpl(2);
+        redis.host("localhost");
+        redis.port(server.socket.getLocalPort());
+    }
+
+    @After
+    public void close() throws IOException {
+        redis.close();
+        server.socket.close();
+    }
+
+    @Test
+    public void get() {
+        redis.set("key", "value");
+
+        assertEquals("value", redis.get("key"));
+        assertNull(redis.get("notExistedKey"));
+        assertEquals("value", redis.getAsync("key").join());
+    }
+
+    @Test
+    public void setIfAbsent() {
+        assertTrue(redis.setIfAbsent("key", "value", Duration.ofMinutes(1)));
+        assertFalse(redis.setIfAbsentAsync("key", "value", Duration.ofMinutes(1)).join());
+    }
+
+    @Test
+    public void getWithConcurrentCallers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String prefix = "thread" + i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        redis.set(prefix + "-" + j, String.valueOf(j));
+                        assertEquals(String.valueOf(j), redis.get(prefix + "-" + j));     // replies must be matched in order
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void multiGet() {
+        Map<String, String> values = Maps.newHashMap();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+        redis.multiSet(values);
+
+        Map<String, String> results = redis.multiGet("key1", "key2", "key3");
+        assertEquals(2, results.size());
+        assertEquals("value2", results.get("key2"));
+    }
+
+    @Test
+    public void delByPattern() {
+        redis.set("cache:key1", "value1");
+        redis.set("cache:key2", "value2");
+        redis.set("key3", "value3");
+
+        assertEquals(2, redis.delByPattern("cache:*"));
+        assertNull(redis.get("cache:key1"));
+        assertEquals("value3", redis.get("key3"));
+    }
+
+    @Test
+    public void delByPatternWithoutMatch() {
+        redis.set("key1", "value1");
+
+        assertEquals(0, redis.delByPattern("cache:*"));
+        assertEquals("value1", redis.get("key1"));
+    }
+
+    @Test
+    public void batch() {
+        redis.set("key1", "value1");
+
+        RedisBatch batch = redis.batch();
+        CompletableFuture<String> value = batch.get("key1");
+        batch.set("key2", "value2");
+        batch.execute();
+
+        assertEquals("value1", value.join());
+        assertEquals("value2", redis.get("key2"));
+    }
+
+    @Test
+    public void eval() {
+        RedisScript<Long> script = RedisScript.returnLong("return #KEYS + #ARGV");
+
+        assertEquals(2L, (long) redis.eval(script, Collections.singletonList("key"), Duration.ofMinutes(1)));   // fake server does not cache script, EVALSHA always falls back to EVAL
+        assertEquals(1L, (long) redis.evalAsync(script, Collections.emptyList(), "arg").join());
+    }
+
+    @Test
+    public void reconnectAfterReplyTimeout() {
+        redis.timeout(Duration.ofMillis(100));
+        redis.set("key", "value");
+        server.silent = true;
+
+        for (int i = 0; i < 2; i++) {   // each connection times out once, and is closed to fail all pending commands
+            try {
+                redis.get("key");
+            } catch (RedisException e) {
+                assertTrue(e.getMessage().contains("timeout"));
+            }
+        }
+        server.silent = false;
+        assertEquals("value", redis.get("key"));
+        assertEquals("value", redis.get("key"));
+    }
+
+    @Test
+    public void checkTimeout() throws InterruptedException {
+        redis.timeout(Duration.ofMillis(50));
+        server.silent = true;
+        MultiplexedRedisConnection connection = redis.connection();
+        CompletableFuture<Object> future = connection.execute(Strings.bytes("GET"), Strings.bytes("key"));
+
+        connection.checkTimeout();
+        assertFalse(connection.closed());
+
+        Thread.sleep(100);
+        connection.checkTimeout();
+        assertTrue(connection.closed());
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void getWithinCallback() {
+        redis.timeout(Duration.ofSeconds(1));
+        redis.set("key1", "value1");
+        redis.set("key2", "value2");
+
+        assertEquals("value2", redis.getAsync("key1").thenApply(value -> redis.get("key2")).join());   // callback must not run on read thread, otherwise waits for its own reply
+    }
+
+    @Test
+    public void getAfterClose() {
+        redis.set("key", "value");
+        redis.close();
+
+        try {
+            redis.get("key");
+            fail("closed client should not reconnect");
+        } catch (RedisException e) {
+            assertTrue(e.getMessage().contains("closed"));
+        }
+    }
+
+    @Test
+    public void reconnect() throws IOException {
+        redis.set("key", "value");
+        server.closeConnections();
+
+        for (int i = 0; i < 2; i++) {   // command on connection closed by server fails, and connection is recreated on next call
+            try {
+                redis.get("key");
+            } catch (RedisException e) {
+                assertTrue(e.getMessage().contains("closed"));
+            }
+        }
+        assertEquals("value", redis.get("key"));
+        assertEquals("value", redis.get("key"));
+    }
+
+    // supports GET/SET/DEL/MGET/MSET/SCAN/EVAL, SCAN returns all keys matching prefix in one page, EVAL returns number of keys and args, each connection is served by one thread
+    static class FakeRedisServer extends Thread {
+        final ServerSocket socket = new ServerSocket(0);
+        final Map<String, String> store = Maps.newConcurrentHashMap();
+        final List<Socket> connections = new CopyOnWriteArrayList<>();
+        volatile boolean silent;   // read commands without reply, to simulate hung server
+
+        FakeRedisServer() throws IOException {
+            super("fake-redis-server");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket connection = socket.accept();
+                    connections.add(connection);
+                    Thread thread = new Thread(() -> serve(connection));
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        void closeConnections() throws IOException {
+            for (Socket connection : connections) {
+                connection.close();
+            }
+        }
+
+        private void serve(Socket connection) {
+            try {
+                RedisProtocol.Reader reader = new RedisProtocol.Reader(Channels.newChannel(connection.getInputStream()));
+                OutputStream output = connection.getOutputStream();
+                while (true) {
+                    List<?> command = (List<?>) reader.read();
+                    if (!silent) output.write(Strings.bytes(reply(command)));
+                }
+            } catch (IOException e) {
+                // connection closed
+            }
+        }
+
+        private String reply(List<?> command) {
+            String name = argument(command, 0);
+            switch (name) {
+                case "SET":
+                    if (command.size() > 3 && "NX".equals(argument(command, 3)) && store.putIfAbsent(argument(command, 1), argument(command, 2)) != null) return "$-1\r\n";
+                    store.put(argument(command, 1), argument(command, 2));
+                    return "+OK\r\n";
+                case "GET":
+                    return bulkString(store.get(argument(command, 1)));
+                case "MSET":
+                    for (int i = 1; i < command.size(); i += 2) {
+                        store.put(argument(command, i), argument(command, i + 1));
+                    }
+                    return "+OK\r\n";
+                case "MGET":
+                    StringBuilder builder = new StringBuilder("*").append(command.size() - 1).append("\r\n");
+                    for (int i = 1; i < command.size(); i++) {
+                        builder.append(bulkString(store.get(argument(command, i))));
+                    }
+                    return builder.toString();
+                case "DEL":
+                    if (command.size() == 1) return "-ERR wrong number of arguments for 'del' command\r\n";
+                    int deleted = 0;
+                    for (int i = 1; i < command.size(); i++) {
+                        if (store.remove(argument(command, i)) != null) deleted++;
+                    }
+                    return ":" + deleted + "\r\n";
+                case "SCAN":
+                    String prefix = argument(command, 3).replace("*", "");
+                    List<String> keys = new ArrayList<>();
+                    for (String key : store.keySet()) {
+                        if (key.startsWith(prefix)) keys.add(key);
+                    }
+                    StringBuilder scanReply = new StringBuilder("*2\r\n").append(bulkString("0")).append('*').append(keys.size()).append("\r\n");
+                    keys.forEach(key -> scanReply.append(bulkString(key)));
+                    return scanReply.toString();
+                case "EVALSHA":
+                    return "-NOSCRIPT No matching script. Please use EVAL.\r\n";
+                case "EVAL":
+                    return ":" + (command.size() - 3) + "\r\n";
+                default:
+                    return "-ERR unknown command\r\n";
+            }
+        }
+
+        private String bulkString(String value) {
+            if (value == null) return "$-1\r\n";
+            return "$" + value.length() + "\r\n" + value + "\r\n";
+        }
+
+        private String argument(List<?> command, int index) {
+            return new String((byte[]) command.get(index));
+        }
+    }
+}
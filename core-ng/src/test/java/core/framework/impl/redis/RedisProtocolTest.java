@@ -0,0 +1,51 @@
+package core.framework.impl.redis;
+
+import core.framework.api.util.Strings;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class RedisProtocolTest {
+    @Test
+    public void encode() {
+        ByteBuffer buffer = RedisProtocol.encode(Collections.singletonList(new byte[][]{Strings.bytes("SET"), Strings.bytes("key"), Strings.bytes("value1234567")}));
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertEquals("*3\r\n$3\r\nSET\r\n$3\r\nkey\r\n$12\r\nvalue1234567\r\n", new String(bytes));
+    }
+
+    @Test
+    public void read() throws IOException {
+        RedisProtocol.Reader reader = reader("+OK\r\n-ERR wrong type\r\n:-12\r\n$5\r\nvalue\r\n$-1\r\n*2\r\n$1\r\na\r\n:1\r\n*0\r\n");
+
+        assertEquals("OK", reader.read());
+        Object error = reader.read();
+        assertTrue(error instanceof RedisException);
+        assertEquals("ERR wrong type", ((RedisException) error).getMessage());
+        assertEquals(-12L, reader.read());
+        assertArrayEquals(Strings.bytes("value"), (byte[]) reader.read());
+        assertNull(reader.read());
+        List<?> values = (List<?>) reader.read();
+        assertArrayEquals(Strings.bytes("a"), (byte[]) values.get(0));
+        assertEquals(1L, values.get(1));
+        assertTrue(((List<?>) reader.read()).isEmpty());
+    }
+
+    private RedisProtocol.Reader reader(String replies) {
+        return new RedisProtocol.Reader(Channels.newChannel(new ByteArrayInputStream(Strings.bytes(replies))));
+    }
+}
@@ -0,0 +1,45 @@
+package core.framework.impl.redis;
+
+import core.framework.api.redis.RedisScript;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Strings;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class RedisScriptsTest {
+    @Test
+    public void params() {
+        byte[][] params = RedisScripts.params(Collections.singletonList("key"), "value", 10, true, Duration.ofMinutes(1));
+
+        assertEquals(5, params.length);
+        assertEquals("key", new String(params[0]));
+        assertEquals("value", new String(params[1]));
+        assertEquals("10", new String(params[2]));
+        assertEquals("true", new String(params[3]));
+        assertEquals("60", new String(params[4]));
+    }
+
+    @Test
+    public void result() {
+        assertEquals("value", RedisScripts.result(RedisScript.returnString("return ARGV[1]"), Strings.bytes("value")));
+        assertEquals("OK", RedisScripts.result(RedisScript.returnString("return redis.call('set', KEYS[1], ARGV[1])"), "OK"));
+        assertEquals(Long.valueOf(1), RedisScripts.result(RedisScript.returnLong("return 1"), 1L));
+        assertNull(RedisScripts.result(RedisScript.returnLong("return nil"), null));
+        assertTrue(RedisScripts.result(RedisScript.returnBoolean("return true"), 1L));
+        assertFalse(RedisScripts.result(RedisScript.returnBoolean("return false"), null));
+
+        List<String> values = RedisScripts.result(RedisScript.returnList("return ARGV"), Lists.newArrayList(Strings.bytes("value1"), Strings.bytes("value2")));
+        assertEquals(Lists.newArrayList("value1", "value2"), values);
+    }
+}
@@ -0,0 +1,125 @@
+package core.framework.impl.redis;
+
+import core.framework.api.log.ActionLogContext;
+import core.framework.impl.async.ThreadPools;
+import core.framework.impl.log.DefaultLoggerFactory;
+import core.framework.impl.log.LogManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.impl.StaticLoggerBinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class ShardedRedisImplTest {
+    private ShardedRedisImpl redis;
+
+    @Before
+    public void createShardedRedis() {
+        redis = new ShardedRedisImpl("redis");
+        redis.hosts("redis-1", "redis-2", "redis-3");
+    }
+
+    @After
+    public void closeShardedRedis() {
+        redis.close();
+    }
+
+    @Test
+    public void hashKey() {
+        assertEquals("key", redis.hashKey("key"));
+        assertEquals("user:1", redis.hashKey("{user:1}:profile"));
+        assertEquals("user:1", redis.hashKey("session:{user:1}"));
+        assertEquals("{}:key", redis.hashKey("{}:key"));
+        assertEquals("{key", redis.hashKey("{key"));
+    }
+
+    @Test
+    public void shardIndex() {
+        assertEquals(redis.shardIndex("{user:1}:profile"), redis.shardIndex("{user:1}:orders"));
+        assertEquals(redis.shardIndex("key"), redis.shardIndex("key"));
+    }
+
+    @Test
+    public void distribution() {
+        int[] counts = new int[3];
+        for (int i = 0; i < 30000; i++) {
+            counts[redis.shardIndex("key:" + i)]++;
+        }
+        for (int count : counts) {
+            assertTrue("keys should be spread evenly, count=" + count, count > 7000 && count < 13000);
+        }
+    }
+
+    @Test
+    public void singleHost() {
+        ShardedRedisImpl redis = new ShardedRedisImpl("redis");
+        redis.hosts("redis-1");
+        assertEquals(0, redis.shardIndex("key"));
+        redis.close();
+    }
+
+    @Test
+    public void parallelWithConcurrentCallers() {
+        Map<Integer, Integer> tasks = shardTasks();
+        int callers = 20;
+        CountDownLatch running = new CountDownLatch(callers * tasks.size());
+        ExecutorService callerExecutor = ThreadPools.fixedThreadPool(callers, "caller-");
+        List<CompletableFuture<List<Boolean>>> futures = new ArrayList<>(callers);
+        for (int i = 0; i < callers; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> redis.parallel(tasks, (shard, value) -> {
+                running.countDown();
+                return await(running);     // all shard tasks of all callers must run at same time to pass latch
+            }), callerExecutor));
+        }
+        for (CompletableFuture<List<Boolean>> future : futures) {
+            assertEquals("concurrent callers should not be serialized by shard count", Arrays.asList(true, true, true), future.join());
+        }
+        callerExecutor.shutdown();
+    }
+
+    @Test
+    public void parallelTracksEachShard() {
+        LogManager logManager = ((DefaultLoggerFactory) StaticLoggerBinder.getSingleton().getLoggerFactory()).logManager;
+        logManager.begin("begin");
+        try {
+            redis.parallel(shardTasks(), (shard, value) -> {
+                if (value == 2) ActionLogContext.track("redis", 100);   // shard on caller thread tracks itself, as RedisImpl does
+                return value;
+            });
+            assertEquals(3, logManager.currentActionLog().trackCount("redis"));
+        } finally {
+            logManager.end("end");
+        }
+    }
+
+    private Map<Integer, Integer> shardTasks() {
+        Map<Integer, Integer> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            tasks.put(i, i);
+        }
+        return tasks;
+    }
+
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
+    }
+}
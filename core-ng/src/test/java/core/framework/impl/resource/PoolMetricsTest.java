@@ -0,0 +1,63 @@
+package core.framework.impl.resource;
+
+import core.framework.api.util.Maps;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author neo
+ */
+public class PoolMetricsTest {
+    private Pool<Object> pool;
+    private PoolMetrics metrics;
+
+    @Before
+    public void createPoolMetrics() {
+        pool = new Pool<>(Object::new, resource -> {
+        });
+        pool.name("test");
+        pool.size(1, 1);
+        pool.checkoutTimeout(Duration.ofMillis(10));
+        metrics = new PoolMetrics(Collections.singletonList(pool));
+    }
+
+    @Test
+    public void collect() {
+        PoolItem<Object> item = pool.borrowItem();
+        try {
+            pool.borrowItem();
+            fail("pool should be exhausted");
+        } catch (PoolException e) {
+            assertEquals("POOL_TIME_OUT", e.errorCode());
+        }
+
+        Map<String, Double> stats = Maps.newHashMap();
+        metrics.collect(stats);
+        assertEquals(1, stats.get("pool_test_total"), 0);
+        assertEquals(1, stats.get("pool_test_active"), 0);
+        assertEquals(0, stats.get("pool_test_idle"), 0);
+        assertEquals(1, stats.get("pool_test_limit"), 0);
+        assertEquals(2, stats.get("pool_test_checkouts"), 0);
+        assertEquals(1, stats.get("pool_test_creates"), 0);
+        assertEquals(1, stats.get("pool_test_waits"), 0);
+        assertEquals(1, stats.get("pool_test_timeouts"), 0);
+        assertTrue(stats.containsKey("pool_test_wait_time_avg"));
+
+        pool.returnItem(item);
+        stats = Maps.newHashMap();
+        metrics.collect(stats);
+        assertEquals(1, stats.get("pool_test_idle"), 0);
+        assertEquals(0, stats.get("pool_test_checkouts"), 0);
+        assertEquals(0, stats.get("pool_test_waits"), 0);
+        assertFalse(stats.containsKey("pool_test_wait_time_avg"));
+    }
+}
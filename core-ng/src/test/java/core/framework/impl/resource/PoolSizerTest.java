@@ -0,0 +1,67 @@
+package core.framework.impl.resource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author neo
+ */
+public class PoolSizerTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private PoolSizer sizer;
+    private PoolStats stats;
+
+    @Before
+    public void createPoolSizer() {
+        sizer = new PoolSizer(Duration.ofMillis(10), 0);
+        stats = new PoolStats();
+    }
+
+    @Test
+    public void growWhenWaitTimeExceedsTarget() {
+        stats.usageTime.add(8 * SECOND);    // 8 items busy on average
+        stats.waited(Duration.ofMillis(50).toNanos());
+
+        assertEquals(12, sizer.limit(8, 1, 50, stats, SECOND));
+        assertEquals(8, sizer.concurrency, 0.001);
+        assertEquals("wait_time_exceeded", sizer.reason);
+    }
+
+    @Test
+    public void growWithinMaxSize() {
+        stats.usageTime.add(40 * SECOND);
+        stats.waited(Duration.ofMillis(50).toNanos());
+
+        assertEquals(50, sizer.limit(40, 1, 50, stats, SECOND));
+    }
+
+    @Test
+    public void keepWhenWaitTimeWithinTarget() {
+        stats.usageTime.add(10 * SECOND);
+        stats.waited(Duration.ofMillis(1).toNanos());
+
+        assertEquals(10, sizer.limit(10, 1, 50, stats, SECOND));
+        assertNull(sizer.reason);
+    }
+
+    @Test
+    public void shrinkWhenIdle() {
+        stats.usageTime.add(SECOND / 2);
+
+        assertEquals(30, sizer.limit(40, 5, 50, stats, SECOND));
+        assertEquals("idle", sizer.reason);
+        assertEquals(23, sizer.limit(30, 5, 50, stats, 2 * SECOND));
+        assertEquals(0, sizer.concurrency, 0.001);
+    }
+
+    @Test
+    public void shrinkWithinMinSize() {
+        assertEquals(5, sizer.limit(6, 5, 50, stats, SECOND));
+    }
+}
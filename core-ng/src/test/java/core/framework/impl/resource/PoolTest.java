@@ -3,6 +3,9 @@ package core.framework.impl.resource;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author neo
  */
@@ -15,8 +18,186 @@ public class PoolTest {
         Assert.assertNotNull(item.resource);
         pool.returnItem(item);
 
-        Assert.assertEquals(1, pool.idleItems.size());
-        Assert.assertNotNull(pool.idleItems.getFirst().returnTime);
+        Assert.assertEquals(1, pool.idleCount());
+        Assert.assertTrue(pool.items.get(0).returnTime > 0);
+    }
+
+    @Test
+    public void borrowLastReturnedItem() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+
+        PoolItem<TestResource> item1 = pool.borrowItem();
+        PoolItem<TestResource> item2 = pool.borrowItem();
+        pool.returnItem(item1);
+        pool.returnItem(item2);
+
+        Assert.assertSame(item2, pool.borrowItem());
+        Assert.assertSame(item1, pool.borrowItem());
+        Assert.assertEquals(2, pool.total());
+    }
+
+    @Test
+    public void borrowAfterLastItemRecycled() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(0, 5);
+        pool.maxIdleTime(Duration.ZERO);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        pool.returnItem(item);
+        item.returnTime = 0;    // expired
+        pool.refresh();
+        Assert.assertEquals(0, pool.total());
+
+        PoolItem<TestResource> newItem = pool.borrowItem();
+        Assert.assertNotSame(item, newItem);
+        Assert.assertFalse(newItem.resource.closed);
+    }
+
+    @Test
+    public void returnWithoutPollingWaiter() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.waiters.incrementAndGet();     // waiter is counted but not polling yet, e.g. scanning idle items
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        pool.returnItem(item);      // must not spin until waiter polls
+
+        Assert.assertTrue(item.idle());
+    }
+
+    @Test
+    public void borrowIdleItemFromAnyOffset() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(0, 10);
+        for (int i = 0; i < 10; i++) {
+            pool.borrowItem();
+        }
+        PoolItem<TestResource> item = pool.items.get(0);
+        for (int i = 0; i < 20; i++) {
+            CompletableFuture.runAsync(() -> pool.returnItem(item)).join();    // returned by other thread, so not tried as last item of current thread
+
+            Assert.assertSame(item, pool.borrowItem());
+            Assert.assertEquals(10, pool.total());
+        }
+    }
+
+    @Test
+    public void returnBrokenItem() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        item.broken = true;
+        pool.returnItem(item);
+
+        Assert.assertTrue(item.resource.closed);
+        Assert.assertEquals(0, pool.total());
+        Assert.assertTrue(pool.items.isEmpty());
+    }
+
+    @Test
+    public void waitForReturnedItem() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 1);
+        pool.checkoutTimeout(Duration.ofSeconds(5));
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        CompletableFuture<PoolItem<TestResource>> waiting = CompletableFuture.supplyAsync(pool::borrowItem);
+        pool.returnItem(item);
+
+        Assert.assertSame(item, waiting.join());
+    }
+
+    @Test
+    public void waitWhileLimitGrows() throws InterruptedException {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 1);
+        pool.checkoutTimeout(Duration.ofSeconds(5));
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        CompletableFuture<PoolItem<TestResource>> waiting = CompletableFuture.supplyAsync(pool::borrowItem);
+        while (pool.waiters.get() == 0) {
+            Thread.sleep(1);
+        }
+        pool.size(1, 2);    // e.g. raised by adjustSize(), waiter creates new item instead of waiting for returned one
+
+        Assert.assertNotSame(item, waiting.join());
+        Assert.assertEquals(2, pool.total());
+    }
+
+    @Test(expected = PoolException.class)
+    public void timeoutWhenExhausted() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 1);
+        pool.checkoutTimeout(Duration.ofMillis(10));
+
+        pool.borrowItem();
+        pool.borrowItem();
+    }
+
+    @Test
+    public void refresh() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 5);
+        pool.maxIdleTime(Duration.ZERO);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        pool.returnItem(item);
+        item.returnTime -= 1000;
+        pool.refresh();
+
+        Assert.assertTrue(item.resource.closed);
+        Assert.assertEquals(1, pool.total());
+        Assert.assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    public void validateOnRefresh() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 5);
+        pool.validator(resource -> !resource.broken);
+
+        PoolItem<TestResource> item1 = pool.borrowItem();
+        PoolItem<TestResource> item2 = pool.borrowItem();
+        pool.returnItem(item1);
+        pool.returnItem(item2);
+        item1.resource.broken = true;
+        pool.refresh();
+
+        Assert.assertTrue(item1.resource.closed);
+        Assert.assertFalse(item2.resource.closed);
+        Assert.assertEquals(1, pool.total());
+        Assert.assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    public void warmUp() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(3, 5);
+
+        pool.warmUp();
+
+        Assert.assertEquals(3, pool.total());
+        Assert.assertEquals(3, pool.idleCount());
+    }
+
+    @Test
+    public void adjustSize() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 4);
+        pool.adaptive(Duration.ofMillis(10));
+
+        PoolItem<TestResource> item1 = pool.borrowItem();
+        PoolItem<TestResource> item2 = pool.borrowItem();
+        pool.returnItem(item1);
+        pool.returnItem(item2);
+        pool.adjustSize();
+
+        Assert.assertEquals(3, pool.limit());
+        Assert.assertEquals(1, pool.stats.resizes.sum());
+        Assert.assertEquals(2, pool.total());
+        pool.adjustSize();
+        pool.adjustSize();
+        Assert.assertEquals(1, pool.limit());
+        Assert.assertEquals(1, pool.total());
     }
 
     @Test
@@ -32,10 +213,11 @@ public class PoolTest {
 
     static class TestResource implements AutoCloseable {
         boolean closed;
+        boolean broken;
 
         @Override
         public void close() {
             closed = true;
         }
     }
-}
\ No newline at end of file
+}
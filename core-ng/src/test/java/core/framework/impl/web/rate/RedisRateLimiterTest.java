@@ -0,0 +1,141 @@
+package core.framework.impl.web.rate;
+
+import core.framework.api.redis.AsyncRedis;
+import core.framework.api.redis.Redis;
+import core.framework.api.util.Lists;
+import core.framework.impl.redis.RedisException;
+import core.framework.impl.redis.RedisImpl;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+public class RedisRateLimiterTest {
+    private Redis redis;
+    private RateLimiter localRateLimiter;
+    private RedisRateLimiter rateLimiter;
+
+    @Before
+    public void createRedisRateLimiter() {
+        redis = mock(Redis.class);
+        localRateLimiter = new RateLimiter(10);
+        localRateLimiter.config("group", 1, 1, TimeUnit.HOURS);
+        rateLimiter = new RedisRateLimiter(redis, localRateLimiter, Duration.ofSeconds(10));
+    }
+
+    @After
+    public void closeRedisRateLimiter() {
+        rateLimiter.close();
+    }
+
+    @Test
+    public void rejectByRedis() {
+        when(redis.eval(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any())).thenReturn(Boolean.FALSE);
+
+        assertFalse(rateLimiter.acquire("group", "10.0.0.1"));
+        assertEquals(1, rateLimiter.rejects.sum());
+    }
+
+    @Test
+    public void rejectLocally() {
+        when(redis.eval(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any())).thenReturn(Boolean.TRUE);
+
+        assertTrue(rateLimiter.acquire("group", "10.0.0.1"));
+        assertFalse(rateLimiter.acquire("group", "10.0.0.1"));
+        assertEquals(1, rateLimiter.localRejects.sum());
+        verify(redis, times(1)).eval(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any());
+    }
+
+    @Test
+    public void failOpen() {
+        when(redis.eval(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any())).thenThrow(new RedisException("failed"));
+
+        assertTrue(rateLimiter.acquire("group", "10.0.0.1"));
+        assertTrue(rateLimiter.acquire("group", "10.0.0.2"));
+        assertEquals(2, rateLimiter.failOpens.sum());
+        verify(redis, times(1)).eval(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any());
+    }
+
+    @Test
+    public void failOpenWhenRedisIsSlow() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(redis.eval(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any())).thenAnswer(invocation -> release.await(10, TimeUnit.SECONDS));
+        RedisRateLimiter rateLimiter = new RedisRateLimiter(redis, localRateLimiter, Duration.ofMillis(20));
+        try {
+            assertTrue(rateLimiter.acquire("group", "10.0.0.1"));   // request thread does not wait for stalled redis call
+            assertEquals(1, rateLimiter.slowChecks.sum());
+            assertEquals(1, rateLimiter.failOpens.sum());
+        } finally {
+            release.countDown();
+            rateLimiter.close();
+        }
+    }
+
+    @Test
+    public void failOpenWhenAsyncRedisIsSlow() {
+        AsyncRedis redis = mock(AsyncRedis.class);
+        when(redis.evalAsync(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any())).thenReturn(new CompletableFuture<>());
+        RedisRateLimiter rateLimiter = new RedisRateLimiter(redis, localRateLimiter, Duration.ofMillis(20));
+
+        assertTrue(rateLimiter.acquire("group", "10.0.0.1"));
+        assertEquals(1, rateLimiter.slowChecks.sum());
+        verify(redis, never()).eval(eq(RedisRateLimiter.TOKEN_BUCKET), anyList(), any());
+    }
+
+    @Test
+    public void tokenBucketScript() {
+        Assume.assumeTrue("requires redis on localhost", redisAvailable());
+        RedisImpl redis = new RedisImpl();
+        redis.host("localhost");
+        try {
+            String key = "rate:test:" + System.nanoTime();
+            long now = System.currentTimeMillis();
+            double fillRatePerMs = 1d / 3_600_000;
+            assertTrue(redis.eval(RedisRateLimiter.TOKEN_BUCKET, Lists.newArrayList(key), 2, fillRatePerMs, now));
+            assertTrue(redis.eval(RedisRateLimiter.TOKEN_BUCKET, Lists.newArrayList(key), 2, fillRatePerMs, now));
+            assertFalse(redis.eval(RedisRateLimiter.TOKEN_BUCKET, Lists.newArrayList(key), 2, fillRatePerMs, now));
+            assertTrue(redis.eval(RedisRateLimiter.TOKEN_BUCKET, Lists.newArrayList(key), 2, fillRatePerMs, now + 3_600_000));   // refilled one permit after one hour
+            redis.del(key);
+        } finally {
+            redis.close();
+        }
+    }
+
+    private boolean redisAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", 6379), 100);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void skipUndefinedGroup() {
+        assertTrue(rateLimiter.acquire("undefined", "10.0.0.1"));
+        assertEquals(0, rateLimiter.rejects.sum());
+    }
+}